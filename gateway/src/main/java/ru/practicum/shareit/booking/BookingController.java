@@ -2,15 +2,23 @@ package ru.practicum.shareit.booking;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
 import ru.practicum.shareit.booking.dto.BookItemRequestDto;
+import ru.practicum.shareit.booking.dto.BookingBatchRequestDto;
 import ru.practicum.shareit.booking.dto.BookingState;
+import ru.practicum.shareit.booking.dto.ExportFormat;
 
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
 import javax.validation.constraints.Positive;
 import javax.validation.constraints.PositiveOrZero;
+import java.io.IOException;
+import java.time.LocalDateTime;
 
 @RestController
 @RequestMapping(path = "/bookings")
@@ -31,6 +39,17 @@ public class BookingController {
         return bookingClient.getBookings(userId, state, from, size);
     }
 
+    @GetMapping(params = "cursor")
+    public ResponseEntity<Object> getBookingsAfter(@RequestHeader("X-Sharer-User-Id") long userId,
+                                                   @RequestParam(name = "state", defaultValue = "all") String stateParam,
+                                                   @RequestParam(name = "cursor", defaultValue = "") String cursor,
+                                                   @Positive @RequestParam(name = "size", defaultValue = "10") Integer size) {
+        BookingState state = BookingState.from(stateParam)
+                .orElseThrow(() -> new IllegalArgumentException("Unknown state: " + stateParam));
+        log.info("Get booking with state {}, userId={}, cursor={}, size={}", stateParam, userId, cursor, size);
+        return bookingClient.getBookingsAfter(userId, state, cursor, size);
+    }
+
     @GetMapping("/owner")
     public ResponseEntity<Object> getBookingOwner(@RequestHeader("X-Sharer-User-Id") long userId,
                                                   @RequestParam(name = "state", defaultValue = "all") String stateParam,
@@ -44,6 +63,26 @@ public class BookingController {
         return bookingClient.getBookingOwner(userId, state, from, size);
     }
 
+    @GetMapping(path = "/owner", params = "cursor")
+    public ResponseEntity<Object> getBookingOwnerAfter(@RequestHeader("X-Sharer-User-Id") long userId,
+                                                       @RequestParam(name = "state", defaultValue = "all") String stateParam,
+                                                       @RequestParam(name = "cursor", defaultValue = "") String cursor,
+                                                       @Positive @RequestParam(name = "size", defaultValue = "10")
+                                                       Integer size) {
+        BookingState state = BookingState.from(stateParam)
+                .orElseThrow(() -> new IllegalArgumentException("Unknown state: " + stateParam));
+        log.info("Get booking owner with state {}, userId={}, cursor={}, size={}", stateParam, userId, cursor, size);
+        return bookingClient.getBookingOwnerAfter(userId, state, cursor, size);
+    }
+
+    @GetMapping("/owner/stats")
+    public ResponseEntity<Object> getOwnerStats(@RequestHeader("X-Sharer-User-Id") long userId,
+                                                @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                                @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        log.info("Get owner stats from {} to {}, userId={}", from, to, userId);
+        return bookingClient.getOwnerStats(userId, from, to);
+    }
+
     @PostMapping
     public ResponseEntity<Object> bookItem(@RequestHeader("X-Sharer-User-Id") long userId,
                                            @RequestBody @Valid BookItemRequestDto requestDto) {
@@ -51,6 +90,22 @@ public class BookingController {
         return bookingClient.bookItem(userId, requestDto);
     }
 
+    @GetMapping("/stream")
+    public DeferredResult<ResponseEntity<ResponseBodyEmitter>> getEvents(@RequestHeader("X-Sharer-User-Id") long userId) {
+        log.info("Subscribe to booking events, userId={}", userId);
+        return bookingClient.getEvents(userId);
+    }
+
+    @GetMapping("/export")
+    public void exportBookings(@RequestHeader("X-Sharer-User-Id") long userId,
+                               @RequestParam(name = "format", defaultValue = "csv") String formatParam,
+                               HttpServletResponse response) throws IOException {
+        ExportFormat format = ExportFormat.from(formatParam)
+                .orElseThrow(() -> new IllegalArgumentException("Unknown format: " + formatParam));
+        log.info("Export bookings in format {}, userId={}", format, userId);
+        bookingClient.exportBookings(userId, format, response);
+    }
+
     @GetMapping("/{bookingId}")
     public ResponseEntity<Object> getBooking(@RequestHeader("X-Sharer-User-Id") long userId,
                                              @PathVariable Long bookingId) {
@@ -65,4 +120,11 @@ public class BookingController {
         log.info("Approve status of booking {}", bookingId);
         return bookingClient.updateStatus(userId, bookingId, approved);
     }
+
+    @PatchMapping("/batch")
+    public ResponseEntity<Object> updateStatuses(@RequestHeader("X-Sharer-User-Id") long userId,
+                                                 @RequestBody @Valid BookingBatchRequestDto requestDto) {
+        log.info("Update status of bookings {}, userId={}", requestDto, userId);
+        return bookingClient.updateStatuses(userId, requestDto);
+    }
 }
\ No newline at end of file
@@ -1,18 +1,52 @@
 package ru.practicum.shareit.client;
 
 import org.springframework.http.*;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.lang.Nullable;
 import org.springframework.web.client.HttpStatusCodeException;
 import org.springframework.web.client.RestTemplate;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
 
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Flow;
 
 public class BaseClient {
+    private static final List<String> FORWARDED_HEADERS = List.of(HttpHeaders.IF_NONE_MATCH, HttpHeaders.IF_MATCH,
+            "Idempotency-Key");
+    private static final MediaType EVENT_LINE_TYPE = new MediaType(MediaType.TEXT_PLAIN, StandardCharsets.UTF_8);
+    private static final HttpClient EVENT_CLIENT = HttpClient.newHttpClient();
+
     protected final RestTemplate rest;
+    protected final RestTemplate streamingRest;
 
     public BaseClient(RestTemplate rest) {
+        this(rest, rest);
+    }
+
+    public BaseClient(RestTemplate rest, RestTemplate streamingRest) {
         this.rest = rest;
+        this.streamingRest = streamingRest;
+    }
+
+    protected static ClientHttpRequestFactory streamingRequestFactory() {
+        HttpComponentsClientHttpRequestFactory requestFactory = new HttpComponentsClientHttpRequestFactory();
+        requestFactory.setBufferRequestBody(false);
+        return requestFactory;
     }
 
     protected ResponseEntity<Object> get(String path) {
@@ -75,6 +109,80 @@ public class BaseClient {
         return makeAndSendRequest(HttpMethod.DELETE, path, userId, parameters, null);
     }
 
+    protected void stream(HttpMethod method, String path, Long userId, @Nullable Map<String, Object> parameters,
+                          @Nullable MediaType contentType, @Nullable InputStream body,
+                          HttpServletResponse response) throws IOException {
+        try {
+            streamingRest.execute(path, method,
+                    request -> {
+                        request.getHeaders().setAccept(List.of(MediaType.ALL));
+                        if (userId != null) {
+                            request.getHeaders().set("X-Sharer-User-Id", String.valueOf(userId));
+                        }
+                        if (body != null) {
+                            request.getHeaders().setContentType(contentType);
+                            transfer(body, request.getBody());
+                        }
+                    },
+                    serverResponse -> {
+                        response.setStatus(serverResponse.getRawStatusCode());
+                        MediaType responseType = serverResponse.getHeaders().getContentType();
+                        if (responseType != null) {
+                            response.setContentType(responseType.toString());
+                        }
+                        String contentDisposition = serverResponse.getHeaders().getFirst(HttpHeaders.CONTENT_DISPOSITION);
+                        if (contentDisposition != null) {
+                            response.setHeader(HttpHeaders.CONTENT_DISPOSITION, contentDisposition);
+                        }
+                        transfer(serverResponse.getBody(), response.getOutputStream());
+                        return null;
+                    },
+                    parameters == null ? Map.of() : parameters);
+        } catch (HttpStatusCodeException e) {
+            response.setStatus(e.getRawStatusCode());
+            if (e.getResponseHeaders() != null && e.getResponseHeaders().getContentType() != null) {
+                response.setContentType(e.getResponseHeaders().getContentType().toString());
+            }
+            response.getOutputStream().write(e.getResponseBodyAsByteArray());
+        }
+    }
+
+    /**
+     * Проксирует поток server-sent events без выделения потока на соединение: ответ сервера читается
+     * асинхронным HttpClient построчно, следующая строка запрашивается только после отправки предыдущей клиенту.
+     */
+    protected DeferredResult<ResponseEntity<ResponseBodyEmitter>> events(String path, long userId) {
+        DeferredResult<ResponseEntity<ResponseBodyEmitter>> result = new DeferredResult<>();
+        ResponseBodyEmitter emitter = new ResponseBodyEmitter(0L);
+        HttpRequest request = HttpRequest.newBuilder(rest.getUriTemplateHandler().expand(path))
+                .header("X-Sharer-User-Id", String.valueOf(userId))
+                .header(HttpHeaders.ACCEPT, MediaType.TEXT_EVENT_STREAM_VALUE)
+                .build();
+
+        EVENT_CLIENT.sendAsync(request, responseInfo -> {
+            MediaType contentType = responseInfo.headers().firstValue(HttpHeaders.CONTENT_TYPE)
+                    .map(MediaType::parseMediaType)
+                    .orElse(MediaType.TEXT_EVENT_STREAM);
+            result.setResult(ResponseEntity.status(responseInfo.statusCode()).contentType(contentType).body(emitter));
+            return HttpResponse.BodySubscribers.fromLineSubscriber(new EventForwarder(emitter));
+        }).whenComplete((response, e) -> {
+            if (e != null && !result.setErrorResult(e)) {
+                emitter.completeWithError(e);
+            }
+        });
+
+        return result;
+    }
+
+    private static void transfer(InputStream in, OutputStream out) throws IOException {
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            out.write(buffer, 0, read);
+            out.flush();
+        }
+    }
+
     private <T> ResponseEntity<Object> makeAndSendRequest(HttpMethod method, String path, Long userId, @Nullable Map<String, Object> parameters, @Nullable T body) {
         HttpEntity<T> requestEntity = new HttpEntity<>(body, defaultHeaders(userId));
 
@@ -98,6 +206,17 @@ public class BaseClient {
         if (userId != null) {
             headers.set("X-Sharer-User-Id", String.valueOf(userId));
         }
+
+        RequestAttributes requestAttributes = RequestContextHolder.getRequestAttributes();
+        if (requestAttributes instanceof ServletRequestAttributes) {
+            HttpServletRequest request = ((ServletRequestAttributes) requestAttributes).getRequest();
+            for (String header : FORWARDED_HEADERS) {
+                String value = request.getHeader(header);
+                if (value != null) {
+                    headers.set(header, value);
+                }
+            }
+        }
         return headers;
     }
 
@@ -108,10 +227,53 @@ public class BaseClient {
 
         ResponseEntity.BodyBuilder responseBuilder = ResponseEntity.status(response.getStatusCode());
 
+        if (response.getStatusCode() == HttpStatus.NOT_MODIFIED && response.getHeaders().getETag() != null) {
+            responseBuilder.eTag(response.getHeaders().getETag());
+        }
+
         if (response.hasBody()) {
             return responseBuilder.body(response.getBody());
         }
 
         return responseBuilder.build();
     }
+
+    private static class EventForwarder implements Flow.Subscriber<String> {
+        private final ResponseBodyEmitter emitter;
+        private Flow.Subscription subscription;
+
+        private EventForwarder(ResponseBodyEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            emitter.onCompletion(subscription::cancel);
+            emitter.onTimeout(subscription::cancel);
+            emitter.onError(e -> subscription.cancel());
+            subscription.request(1);
+        }
+
+        @Override
+        public void onNext(String line) {
+            try {
+                emitter.send(line + "\n", EVENT_LINE_TYPE);
+                subscription.request(1);
+            } catch (IOException | IllegalStateException e) {
+                subscription.cancel();
+                emitter.completeWithError(e);
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            emitter.completeWithError(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            emitter.complete();
+        }
+    }
 }
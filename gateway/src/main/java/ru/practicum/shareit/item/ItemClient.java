@@ -3,6 +3,8 @@ package ru.practicum.shareit.item;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
@@ -10,7 +12,12 @@ import org.springframework.web.util.DefaultUriBuilderFactory;
 import ru.practicum.shareit.client.BaseClient;
 import ru.practicum.shareit.item.dto.CommentRequestDto;
 import ru.practicum.shareit.item.dto.ItemRequestDto;
+import ru.practicum.shareit.item.dto.ItemSort;
 
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
 import java.util.Map;
 
 @Service
@@ -23,6 +30,10 @@ public class ItemClient extends BaseClient {
                 builder
                         .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
                         .requestFactory(HttpComponentsClientHttpRequestFactory::new)
+                        .build(),
+                builder
+                        .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
+                        .requestFactory(BaseClient::streamingRequestFactory)
                         .build()
         );
     }
@@ -35,6 +46,23 @@ public class ItemClient extends BaseClient {
         return get("?from={from}&size={size}", userId, parameters);
     }
 
+    public ResponseEntity<Object> getItems(long userId, ItemSort sort, Integer from, Integer size) {
+        Map<String, Object> parameters = Map.of(
+                "sort", sort.name(),
+                "from", from,
+                "size", size
+        );
+        return get("?sort={sort}&from={from}&size={size}", userId, parameters);
+    }
+
+    public ResponseEntity<Object> getItemsAfter(long userId, String cursor, Integer size) {
+        Map<String, Object> parameters = Map.of(
+                "cursor", cursor,
+                "size", size
+        );
+        return get("?cursor={cursor}&size={size}", userId, parameters);
+    }
+
     public ResponseEntity<Object> getItem(Long itemId, long userId) {
         return get("/" + itemId, userId);
     }
@@ -43,6 +71,10 @@ public class ItemClient extends BaseClient {
         return post("", userId, requestDto);
     }
 
+    public void importItems(long userId, InputStream body, HttpServletResponse response) throws IOException {
+        stream(HttpMethod.POST, "/batch", userId, null, MediaType.APPLICATION_NDJSON, body, response);
+    }
+
     public ResponseEntity<Object> updateItem(ItemRequestDto requestDto, Long itemId, long userId) {
         return patch("/" + itemId, userId, requestDto);
     }
@@ -60,6 +92,61 @@ public class ItemClient extends BaseClient {
         return get("/search?text={text}&from={from}&size={size}", null, parameters);
     }
 
+    public ResponseEntity<Object> searchItem(String text, ItemSort sort, Integer from, Integer size) {
+        Map<String, Object> parameters = Map.of(
+                "text", text,
+                "sort", sort.name(),
+                "from", from,
+                "size", size
+        );
+        return get("/search?text={text}&sort={sort}&from={from}&size={size}", null, parameters);
+    }
+
+    public ResponseEntity<Object> searchAvailableItem(String text, LocalDateTime start, LocalDateTime end,
+                                                      Integer from, Integer size) {
+        Map<String, Object> parameters = Map.of(
+                "text", text,
+                "start", start,
+                "end", end,
+                "from", from,
+                "size", size
+        );
+        return get("/search?text={text}&start={start}&end={end}&from={from}&size={size}", null, parameters);
+    }
+
+    public ResponseEntity<Object> searchItemAfter(String text, String cursor, Integer size) {
+        Map<String, Object> parameters = Map.of(
+                "text", text,
+                "cursor", cursor,
+                "size", size
+        );
+        return get("/search?text={text}&cursor={cursor}&size={size}", null, parameters);
+    }
+
+    public ResponseEntity<Object> getAvailability(Long itemId, LocalDateTime from, LocalDateTime to) {
+        Map<String, Object> parameters = Map.of(
+                "from", from,
+                "to", to
+        );
+        return get("/" + itemId + "/availability?from={from}&to={to}", null, parameters);
+    }
+
+    public ResponseEntity<Object> suggest(String prefix, Integer size) {
+        Map<String, Object> parameters = Map.of(
+                "prefix", prefix,
+                "size", size
+        );
+        return get("/suggest?prefix={prefix}&size={size}", null, parameters);
+    }
+
+    public ResponseEntity<Object> getComments(Long itemId, long userId, String cursor, Integer size) {
+        Map<String, Object> parameters = Map.of(
+                "cursor", cursor,
+                "size", size
+        );
+        return get("/" + itemId + "/comments?cursor={cursor}&size={size}", userId, parameters);
+    }
+
     public ResponseEntity<Object> createComment(Long itemId, long userId, CommentRequestDto requestDto) {
         return post("/" + itemId + "/comment", userId, requestDto);
     }
@@ -2,16 +2,23 @@ package ru.practicum.shareit.item;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.shareit.item.dto.CommentRequestDto;
 import ru.practicum.shareit.item.dto.ItemRequestDto;
+import ru.practicum.shareit.item.dto.ItemSort;
 
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
 import javax.validation.constraints.Positive;
 import javax.validation.constraints.PositiveOrZero;
+import java.io.IOException;
+import java.time.LocalDateTime;
 
 @Controller
 @RequestMapping("/items")
@@ -29,6 +36,25 @@ public class ItemController {
         return itemClient.getItems(userId, from, size);
     }
 
+    @GetMapping(params = {"sort", "!cursor"})
+    public ResponseEntity<Object> getItems(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                           @RequestParam(name = "sort") String sortParam,
+                                           @PositiveOrZero @RequestParam(name = "from", defaultValue = "0") Integer from,
+                                           @Positive @RequestParam(name = "size", defaultValue = "10") Integer size) {
+        ItemSort sort = ItemSort.from(sortParam)
+                .orElseThrow(() -> new IllegalArgumentException("Unknown sort: " + sortParam));
+        log.info("Get all items from user {} sorted by {}", userId, sort);
+        return itemClient.getItems(userId, sort, from, size);
+    }
+
+    @GetMapping(params = "cursor")
+    public ResponseEntity<Object> getItemsAfter(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                                @RequestParam(name = "cursor", defaultValue = "") String cursor,
+                                                @Positive @RequestParam(name = "size", defaultValue = "10") Integer size) {
+        log.info("Get items from user {} after cursor {}", userId, cursor);
+        return itemClient.getItemsAfter(userId, cursor, size);
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<Object> getItem(@PathVariable Long id,
                                           @RequestHeader("X-Sharer-User-Id") Long userId) {
@@ -43,6 +69,14 @@ public class ItemController {
         return itemClient.createItem(userId, requestDto);
     }
 
+    @PostMapping(path = "/batch", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public void importItems(@RequestHeader("X-Sharer-User-Id") Long userId,
+                            HttpServletRequest request,
+                            HttpServletResponse response) throws IOException {
+        log.info("Import items for user {}", userId);
+        itemClient.importItems(userId, request.getInputStream(), response);
+    }
+
     @PatchMapping("/{id}")
     public ResponseEntity<Object> updateItem(@RequestBody ItemRequestDto requestDto,
                                              @PathVariable Long id,
@@ -65,6 +99,58 @@ public class ItemController {
         return itemClient.searchItem(text, from, size);
     }
 
+    @GetMapping(path = "/search", params = {"sort", "!start", "!cursor"})
+    public ResponseEntity<Object> searchItem(@RequestParam String text,
+                                             @RequestParam(name = "sort") String sortParam,
+                                             @PositiveOrZero @RequestParam(name = "from", defaultValue = "0") Integer from,
+                                             @Positive @RequestParam(name = "size", defaultValue = "10") Integer size) {
+        ItemSort sort = ItemSort.from(sortParam)
+                .orElseThrow(() -> new IllegalArgumentException("Unknown sort: " + sortParam));
+        log.info("Search items by text {} sorted by {}", text, sort);
+        return itemClient.searchItem(text, sort, from, size);
+    }
+
+    @GetMapping(path = "/search", params = {"start", "end"})
+    public ResponseEntity<Object> searchAvailableItem(@RequestParam String text,
+                                                      @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
+                                                      @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end,
+                                                      @PositiveOrZero @RequestParam(name = "from", defaultValue = "0") Integer from,
+                                                      @Positive @RequestParam(name = "size", defaultValue = "10") Integer size) {
+        log.info("Search items by text {} available from {} to {}", text, start, end);
+        return itemClient.searchAvailableItem(text, start, end, from, size);
+    }
+
+    @GetMapping(path = "/search", params = "cursor")
+    public ResponseEntity<Object> searchItemAfter(@RequestParam String text,
+                                                  @RequestParam(name = "cursor", defaultValue = "") String cursor,
+                                                  @Positive @RequestParam(name = "size", defaultValue = "10") Integer size) {
+        log.info("Search items by text {} after cursor {}", text, cursor);
+        return itemClient.searchItemAfter(text, cursor, size);
+    }
+
+    @GetMapping("/{id}/availability")
+    public ResponseEntity<Object> getAvailability(@PathVariable Long id,
+                                                  @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                                  @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        log.info("Get availability of item {} from {} to {}", id, from, to);
+        return itemClient.getAvailability(id, from, to);
+    }
+
+    @GetMapping("/suggest")
+    public ResponseEntity<Object> suggest(@RequestParam String prefix,
+                                          @Positive @RequestParam(name = "size", defaultValue = "10") Integer size) {
+        log.info("Suggest items by prefix {}", prefix);
+        return itemClient.suggest(prefix, size);
+    }
+
+    @GetMapping("/{itemId}/comments")
+    public ResponseEntity<Object> getComments(@PathVariable Long itemId, @RequestHeader("X-Sharer-User-Id") Long userId,
+                                              @RequestParam(name = "cursor", defaultValue = "") String cursor,
+                                              @Positive @RequestParam(name = "size", defaultValue = "10") Integer size) {
+        log.info("Get comments of item {} after cursor {}", itemId, cursor);
+        return itemClient.getComments(itemId, userId, cursor, size);
+    }
+
     @PostMapping("/{itemId}/comment")
     public ResponseEntity<Object> createComment(@PathVariable Long itemId, @RequestHeader("X-Sharer-User-Id") Long userId,
                                                 @Valid @RequestBody CommentRequestDto requestDto) {
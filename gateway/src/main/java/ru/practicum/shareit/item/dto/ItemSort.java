@@ -0,0 +1,19 @@
+package ru.practicum.shareit.item.dto;
+
+import java.util.Optional;
+
+public enum ItemSort {
+    // Порядок по умолчанию
+    DEFAULT,
+    // По популярности
+    POPULARITY;
+
+    public static Optional<ItemSort> from(String stringSort) {
+        for (ItemSort sort : values()) {
+            if (sort.name().equalsIgnoreCase(stringSort)) {
+                return Optional.of(sort);
+            }
+        }
+        return Optional.empty();
+    }
+}
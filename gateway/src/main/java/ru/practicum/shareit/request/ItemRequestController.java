@@ -41,6 +41,14 @@ public class ItemRequestController {
         return itemRequestClient.getAll(userId, from, size);
     }
 
+    @GetMapping(path = "/all", params = "cursor")
+    public ResponseEntity<Object> getAllItemRequestsAfter(@RequestHeader("X-Sharer-User-Id") long userId,
+                                                          @RequestParam(name = "cursor", defaultValue = "") String cursor,
+                                                          @Positive @RequestParam(name = "size", defaultValue = "10") Integer size) {
+        log.info("Get item requests without user {} after cursor {}", userId, cursor);
+        return itemRequestClient.getAllAfter(userId, cursor, size);
+    }
+
     @GetMapping("/{requestId}")
     public ResponseEntity<Object> getItemRequest(@PathVariable Long requestId,
                                                  @RequestHeader("X-Sharer-User-Id") Long userId) {
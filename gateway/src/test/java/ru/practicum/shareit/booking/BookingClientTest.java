@@ -0,0 +1,130 @@
+package ru.practicum.shareit.booking;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Проверяет потоковые ответы шлюза против заглушки сервера на встроенном HttpServer.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class BookingClientTest {
+    private static final List<String> EVENT = List.of("id:1", "event:created",
+            "data:{\"bookingId\":1,\"itemId\":2,\"status\":\"WAITING\"}", "");
+    private static final String EXPORT = "id,start,end,itemId,itemName,bookerId,status\n" +
+            "1,2099-01-01T12:00:00,2099-01-02T12:00:00,2,Дрель,3,WAITING\n";
+    private static HttpServer server;
+
+    @LocalServerPort
+    private int port;
+
+    @BeforeAll
+    static void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/bookings/stream", exchange -> {
+            if (!"1".equals(exchange.getRequestHeaders().getFirst("X-Sharer-User-Id"))) {
+                respond(exchange, 404, "application/json", "{\"error\":\"Пользователь не найден.\"}");
+                return;
+            }
+            respond(exchange, 200, "text/event-stream", String.join("\n", EVENT) + "\n");
+        });
+        server.createContext("/bookings/export", exchange -> {
+            if (!"1".equals(exchange.getRequestHeaders().getFirst("X-Sharer-User-Id"))) {
+                respond(exchange, 404, "application/json", "{\"error\":\"Пользователь не найден.\"}");
+                return;
+            }
+            exchange.getResponseHeaders().set("Content-Disposition", "attachment; filename=\"bookings.csv\"");
+            respond(exchange, 200, "text/csv", EXPORT);
+        });
+        server.start();
+    }
+
+    @AfterAll
+    static void stopServer() {
+        server.stop(0);
+    }
+
+    @DynamicPropertySource
+    static void serverUrl(DynamicPropertyRegistry registry) {
+        registry.add("shareit-server.url", () -> "http://localhost:" + server.getAddress().getPort());
+    }
+
+    @Test
+    void getEvents_shouldForwardEventStream() throws Exception {
+        HttpResponse<Stream<String>> response = send("/bookings/stream", 1L);
+
+        assertEquals(200, response.statusCode());
+        assertTrue(response.headers().firstValue("Content-Type").orElseThrow().startsWith("text/event-stream"));
+        assertEquals(EVENT, response.body().collect(Collectors.toList()));
+    }
+
+    @Test
+    void getEvents_shouldForwardServerError() throws Exception {
+        HttpResponse<Stream<String>> response = send("/bookings/stream", 2L);
+
+        assertEquals(404, response.statusCode());
+        assertEquals(List.of("{\"error\":\"Пользователь не найден.\"}"), response.body().collect(Collectors.toList()));
+    }
+
+    @Test
+    void exportBookings_shouldForwardStatusHeadersAndBody() throws Exception {
+        HttpResponse<String> response = HttpClient.newHttpClient().send(request("/bookings/export?format=csv", 1L),
+                HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
+
+        assertEquals(200, response.statusCode());
+        assertTrue(response.headers().firstValue("Content-Type").orElseThrow().startsWith("text/csv"));
+        assertEquals("attachment; filename=\"bookings.csv\"",
+                response.headers().firstValue("Content-Disposition").orElseThrow());
+        assertEquals(EXPORT, response.body());
+    }
+
+    @Test
+    void exportBookings_shouldForwardServerError() throws Exception {
+        HttpResponse<String> response = HttpClient.newHttpClient().send(request("/bookings/export?format=csv", 2L),
+                HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
+
+        assertEquals(404, response.statusCode());
+        assertTrue(response.headers().firstValue("Content-Disposition").isEmpty());
+        assertEquals("{\"error\":\"Пользователь не найден.\"}", response.body());
+    }
+
+    private HttpResponse<Stream<String>> send(String path, long userId) throws Exception {
+        return HttpClient.newHttpClient().send(request(path, userId), HttpResponse.BodyHandlers.ofLines());
+    }
+
+    private HttpRequest request(String path, long userId) {
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                .header("X-Sharer-User-Id", String.valueOf(userId))
+                .build();
+    }
+
+    private static void respond(HttpExchange exchange, int status, String contentType, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", contentType);
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package ru.practicum.shareit.booking;
+
+public enum BatchOutcome {
+    // Статус бронирования изменён
+    UPDATED,
+    // Бронирование не найдено
+    NOT_FOUND,
+    // Бронирование относится к чужой вещи
+    FORBIDDEN,
+    // Решение по бронированию уже принято
+    ALREADY_DECIDED
+}
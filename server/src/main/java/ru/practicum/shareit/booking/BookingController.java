@@ -1,11 +1,25 @@
 package ru.practicum.shareit.booking;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.practicum.shareit.booking.dto.BookingBatchDto;
+import ru.practicum.shareit.booking.dto.BookingBatchResultDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingShortDto;
+import ru.practicum.shareit.booking.dto.ItemUtilizationDto;
 import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.etag.ConditionalGet;
+import ru.practicum.shareit.idempotency.Idempotent;
+import ru.practicum.shareit.pagination.Cursor;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 import static ru.practicum.shareit.item.ItemController.xSharerUserId;
@@ -20,6 +34,7 @@ public class BookingController {
         this.bookingService = bookingService;
     }
 
+    @Idempotent
     @PostMapping
     public BookingDto create(@RequestHeader(xSharerUserId) Long userId,
                              @RequestBody BookingShortDto bookingShortDto) {
@@ -33,6 +48,32 @@ public class BookingController {
         return bookingService.updateBookingStatus(userId, id, approved);
     }
 
+    @PatchMapping("/batch")
+    public List<BookingBatchResultDto> updateBookingStatuses(@RequestHeader(xSharerUserId) Long userId,
+                                                             @RequestBody BookingBatchDto bookingBatchDto) {
+        return bookingService.updateBookingStatuses(userId, bookingBatchDto);
+    }
+
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter subscribe(@RequestHeader(xSharerUserId) Long userId) {
+        return bookingService.subscribe(userId);
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> export(@RequestHeader(xSharerUserId) Long userId,
+                                                        @RequestParam(defaultValue = "CSV") ExportFormat format) {
+        StreamingResponseBody body = bookingService.export(userId, format);
+
+        return ResponseEntity.ok()
+                .contentType(format.getMediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename("bookings." + format.getExtension())
+                        .build()
+                        .toString())
+                .body(body);
+    }
+
+    @ConditionalGet(BookingService.class)
     @GetMapping("/{id}")
     public BookingDto getById(@RequestHeader(xSharerUserId) Long userId,
                               @PathVariable Long id) {
@@ -47,6 +88,15 @@ public class BookingController {
         return bookingService.getAllBookingsByUser(userId, state, from, size);
     }
 
+    @GetMapping(params = "cursor")
+    public ResponseEntity<List<BookingDto>> getAllBookingsByUserAfter(@RequestHeader(xSharerUserId) Long userId,
+                                                                      @RequestParam(defaultValue = "ALL", required = false) State state,
+                                                                      @RequestParam(defaultValue = "") String cursor,
+                                                                      @RequestParam(defaultValue = "10") int size) {
+        return Cursor.toResponse(bookingService.getAllBookingsByUserAfter(userId, state, Cursor.decode(cursor), size),
+                size, bookingDto -> Cursor.of(bookingDto.getStart(), bookingDto.getId()));
+    }
+
     @GetMapping("/owner")
     public List<BookingDto> getAllBookingsByOwner(@RequestHeader(xSharerUserId) Long userId,
                                                   @RequestParam(defaultValue = "ALL", required = false) State state,
@@ -54,4 +104,20 @@ public class BookingController {
                                                   @RequestParam(defaultValue = "10") int size) {
         return bookingService.getAllBookingsByOwner(userId, state, from, size);
     }
+
+    @GetMapping("/owner/stats")
+    public List<ItemUtilizationDto> getOwnerStats(@RequestHeader(xSharerUserId) Long userId,
+                                                  @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                                  @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        return bookingService.getOwnerStats(userId, from, to);
+    }
+
+    @GetMapping(path = "/owner", params = "cursor")
+    public ResponseEntity<List<BookingDto>> getAllBookingsByOwnerAfter(@RequestHeader(xSharerUserId) Long userId,
+                                                                       @RequestParam(defaultValue = "ALL", required = false) State state,
+                                                                       @RequestParam(defaultValue = "") String cursor,
+                                                                       @RequestParam(defaultValue = "10") int size) {
+        return Cursor.toResponse(bookingService.getAllBookingsByOwnerAfter(userId, state, Cursor.decode(cursor), size),
+                size, bookingDto -> Cursor.of(bookingDto.getStart(), bookingDto.getId()));
+    }
 }
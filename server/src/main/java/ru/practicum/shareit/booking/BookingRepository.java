@@ -1,45 +1,63 @@
 package ru.practicum.shareit.booking;
 
-import org.springframework.data.domain.PageRequest;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
+import ru.practicum.shareit.booking.dto.BookingShortDto;
+import ru.practicum.shareit.booking.dto.BookingVersion;
+import ru.practicum.shareit.booking.dto.IntervalDto;
 import ru.practicum.shareit.booking.model.Booking;
-import ru.practicum.shareit.user.model.User;
 
+import javax.persistence.QueryHint;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface BookingRepository extends JpaRepository<Booking, Long> {
-    List<Booking> findAllByBookerOrderByStartDesc(User booker, PageRequest pageRequest);
-
-    List<Booking> findAllByBookerAndStartBeforeAndEndAfterOrderByStartDesc(User booker, LocalDateTime now, LocalDateTime now1, PageRequest pageRequest);
-
-    List<Booking> findAllByBookerAndEndBeforeOrderByStartDesc(User booker, LocalDateTime now, PageRequest pageRequest);
-
-    List<Booking> findAllByBookerAndStartAfterOrderByStartDesc(User booker, LocalDateTime now, PageRequest pageRequest);
-
-    List<Booking> findAllByBookerAndStatusEqualsOrderByStartDesc(User booker, Status status, PageRequest pageRequest);
-
-    List<Booking> findAllByItemOwnerOrderByStartDesc(User owner, PageRequest pageRequest);
-
-    List<Booking> findAllByItemOwnerAndStartBeforeAndEndAfterOrderByStartDesc(User owner, LocalDateTime now, LocalDateTime now1, PageRequest pageRequest);
-
-    List<Booking> findAllByItemOwnerAndEndBeforeOrderByStartDesc(User owner, LocalDateTime now, PageRequest pageRequest);
-
-    List<Booking> findAllByItemOwnerAndStartAfterOrderByStartDesc(User owner, LocalDateTime now, PageRequest pageRequest);
-
-    List<Booking> findAllByItemOwnerAndStatusEqualsOrderByStartDesc(User owner, Status status, PageRequest pageRequest);
-
+public interface BookingRepository extends JpaRepository<Booking, Long>, BookingRepositoryCustom {
     List<Booking> findAllByBookerIdAndItemIdAndStatusEqualsAndEndIsBefore(Long bookerId, Long itemId, Status status, LocalDateTime end);
 
-    @Query(value = "select * from bookings where item_id = ?1 and status = 'APPROVED' " +
-            "and start_date < ?2 order by start_date desc limit 1", nativeQuery = true)
-    Optional<Booking> findLastItem(Long itemId, LocalDateTime now);
-
-    @Query(value = "select * from bookings where item_id = ?1 and status = 'APPROVED' " +
-            "and start_date > ?2 order by start_date limit 1", nativeQuery = true)
-    Optional<Booking> findNextItem(Long itemId, LocalDateTime now);
+    boolean existsByItemIdAndStatusInAndStartBeforeAndEndAfter(Long itemId, Collection<Status> statuses,
+                                                                LocalDateTime end, LocalDateTime start);
+
+    @Query("select new ru.practicum.shareit.booking.dto.IntervalDto(b.start, b.end) from Booking as b " +
+            "where b.item.id = ?1 and b.status in ?2 and b.end > ?3 order by b.start")
+    List<IntervalDto> findIntervalsByItemIdAndStatusInAndEndAfter(Long itemId, Collection<Status> statuses, LocalDateTime end);
+
+    @Query("select new ru.practicum.shareit.booking.dto.BookingShortDto(b.id, b.start, b.end, b.item.id, b.booker.id) " +
+            "from ItemBookingPointer as p, Booking as b where p.itemId in ?1 and b.id = p.lastBookingId")
+    List<BookingShortDto> findLastBookings(Collection<Long> itemIds);
+
+    @Query("select new ru.practicum.shareit.booking.dto.BookingShortDto(b.id, b.start, b.end, b.item.id, b.booker.id) " +
+            "from ItemBookingPointer as p, Booking as b where p.itemId in ?1 and b.id = p.nextBookingId")
+    List<BookingShortDto> findNextBookings(Collection<Long> itemIds);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update versioned Booking as b set b.status = ?3 " +
+            "where b.id = ?1 and b.status = ru.practicum.shareit.booking.Status.WAITING " +
+            "and b.item.id in (select i.id from Item as i where i.owner.id = ?2)")
+    int updateStatusIfWaiting(Long id, Long ownerId, Status status);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update versioned Booking as b set b.status = ?3 " +
+            "where b.id in ?1 and b.status = ru.practicum.shareit.booking.Status.WAITING " +
+            "and b.item.id in (select i.id from Item as i where i.owner.id = ?2)")
+    int updateStatusIfWaiting(Collection<Long> ids, Long ownerId, Status status);
+
+    /**
+     * Блокирует только строки бронирований и всегда в порядке id, как и фоновая очистка,
+     * чтобы пересекающиеся пакеты не взаимоблокировались; вещь, владелец и арендатор загружаются тем же запросом.
+     */
+    @QueryHints(@QueryHint(name = "org.hibernate.lockMode.b", value = "PESSIMISTIC_WRITE"))
+    @Query("select b from Booking as b join fetch b.item as i join fetch i.owner join fetch b.booker " +
+            "where b.id in ?1 order by b.id")
+    List<Booking> findAllByIdInForUpdate(Collection<Long> ids);
+
+    @Query("select b.version as version, i.version as itemVersion, u.version as bookerVersion, " +
+            "o.version as ownerVersion, u.id as bookerId, o.id as ownerId " +
+            "from Booking as b join b.item as i join b.booker as u join i.owner as o where b.id = ?1")
+    Optional<BookingVersion> findVersionById(Long id);
 }
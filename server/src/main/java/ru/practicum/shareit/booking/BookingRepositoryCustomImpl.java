@@ -0,0 +1,79 @@
+package ru.practicum.shareit.booking;
+
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.pagination.Cursor;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Join;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+public class BookingRepositoryCustomImpl implements BookingRepositoryCustom {
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Единый запрос бронирований пользователя для любой роли и состояния: смещение используется при постраничном
+     * выводе from/size, курсор — при выводе по ключу (start, id).
+     */
+    @Override
+    public List<BookingDto> findBookings(Long userId, Role role, State state, LocalDateTime now, Cursor cursor,
+                                         long offset, int size) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<BookingDto> query = builder.createQuery(BookingDto.class);
+        Root<Booking> booking = query.from(Booking.class);
+        Join<Booking, Item> item = booking.join("item");
+        List<Predicate> predicates = new ArrayList<>();
+
+        if (role == Role.OWNER) {
+            predicates.add(builder.equal(item.get("owner").get("id"), userId));
+        } else {
+            predicates.add(builder.equal(booking.get("booker").get("id"), userId));
+        }
+
+        switch (state) {
+            case CURRENT:
+                predicates.add(builder.lessThan(booking.<LocalDateTime>get("start"), now));
+                predicates.add(builder.greaterThan(booking.<LocalDateTime>get("end"), now));
+                break;
+            case PAST:
+                predicates.add(builder.lessThan(booking.<LocalDateTime>get("end"), now));
+                break;
+            case FUTURE:
+                predicates.add(builder.greaterThan(booking.<LocalDateTime>get("start"), now));
+                break;
+            case WAITING:
+                predicates.add(builder.equal(booking.get("status"), Status.WAITING));
+                break;
+            case REJECTED:
+                predicates.add(builder.equal(booking.get("status"), Status.REJECTED));
+                break;
+        }
+
+        if (cursor != null) {
+            predicates.add(builder.or(
+                    builder.lessThan(booking.<LocalDateTime>get("start"), cursor.getTimestamp()),
+                    builder.and(
+                            builder.equal(booking.get("start"), cursor.getTimestamp()),
+                            builder.lessThan(booking.<Long>get("id"), cursor.getId()))));
+        }
+
+        query.select(builder.construct(BookingDto.class, booking.get("id"), booking.get("start"), booking.get("end"),
+                        item.get("id"), item.get("name"), booking.get("booker").get("id"), booking.get("status")))
+                .where(predicates.toArray(new Predicate[0]))
+                .orderBy(builder.desc(booking.get("start")), builder.desc(booking.get("id")));
+
+        return entityManager.createQuery(query)
+                .setFirstResult((int) offset)
+                .setMaxResults(size)
+                .getResultList();
+    }
+}
@@ -1,20 +1,27 @@
 package ru.practicum.shareit.booking.dto;
 
+import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 import ru.practicum.shareit.booking.Status;
-import ru.practicum.shareit.item.model.Item;
-import ru.practicum.shareit.user.model.User;
 
 import java.time.LocalDateTime;
 
 @Data
 @Builder
+@NoArgsConstructor
+@AllArgsConstructor
 public class BookingDto {
     private Long id;
     private LocalDateTime start;
     private LocalDateTime end;
-    private User booker;
-    private Item item;
+    private BookerDto booker;
+    private BookingItemDto item;
     private Status status;
+
+    public BookingDto(Long id, LocalDateTime start, LocalDateTime end, Long itemId, String itemName, Long bookerId,
+                      Status status) {
+        this(id, start, end, new BookerDto(bookerId), new BookingItemDto(itemId, itemName), status);
+    }
 }
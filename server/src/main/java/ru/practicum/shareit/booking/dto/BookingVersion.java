@@ -0,0 +1,15 @@
+package ru.practicum.shareit.booking.dto;
+
+public interface BookingVersion {
+    Long getVersion();
+
+    Long getItemVersion();
+
+    Long getBookerVersion();
+
+    Long getOwnerVersion();
+
+    Long getBookerId();
+
+    Long getOwnerId();
+}
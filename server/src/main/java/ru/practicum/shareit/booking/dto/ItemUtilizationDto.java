@@ -0,0 +1,20 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ItemUtilizationDto {
+    private Long itemId;
+    private String itemName;
+    private long bookings;
+    private double bookedDays;
+    private double occupancy;
+    private Double approvalRate;
+    private Double averageLeadTimeDays;
+}
@@ -0,0 +1,19 @@
+package ru.practicum.shareit.booking.event;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import ru.practicum.shareit.booking.Status;
+
+import java.time.LocalDateTime;
+
+@Getter
+@RequiredArgsConstructor
+public class BookingChangedEvent {
+    private final Long bookingId;
+    private final Long itemId;
+    private final Status status;
+    private final Long bookerId;
+    private final Long ownerId;
+    private final LocalDateTime start;
+    private final LocalDateTime end;
+}
@@ -0,0 +1,166 @@
+package ru.practicum.shareit.booking.event;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.practicum.shareit.booking.Status;
+import ru.practicum.shareit.booking.dto.BookingEventDto;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * Рассылает изменения бронирований подписанным арендаторам и владельцам вещей после фиксации транзакции.
+ * У каждого подписчика ограниченный буфер: если клиент не успевает его вычитывать, поток закрывается,
+ * и клиент переподключается, перечитав список бронирований.
+ * Отправка идёт в эластичном пуле: медленный клиент занимает только свой поток и не задерживает остальных.
+ */
+@Slf4j
+@Component
+public class BookingEventBus {
+    private final long timeout;
+    private final int bufferSize;
+    private final ExecutorService dispatcher;
+    private final Map<Long, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+
+    @Autowired
+    public BookingEventBus(@Value("${shareit.booking.stream.timeout}") Duration timeout,
+                           @Value("${shareit.booking.stream.buffer-size}") int bufferSize,
+                           @Value("${shareit.booking.stream.dispatch-threads}") int dispatchThreads,
+                           @Value("${shareit.booking.stream.max-dispatch-threads}") int maxDispatchThreads) {
+        this(timeout, bufferSize, new ThreadPoolExecutor(dispatchThreads, maxDispatchThreads, 1, TimeUnit.MINUTES,
+                new SynchronousQueue<>()));
+    }
+
+    BookingEventBus(Duration timeout, int bufferSize, ExecutorService dispatcher) {
+        this.timeout = timeout.toMillis();
+        this.bufferSize = bufferSize;
+        this.dispatcher = dispatcher;
+    }
+
+    public SseEmitter subscribe(Long userId) {
+        Subscriber subscriber = new Subscriber(userId);
+
+        subscriber.emitter.onCompletion(() -> unsubscribe(subscriber));
+        subscriber.emitter.onTimeout(subscriber.emitter::complete);
+        subscriber.emitter.onError(e -> unsubscribe(subscriber));
+        subscribers.computeIfAbsent(userId, id -> ConcurrentHashMap.newKeySet()).add(subscriber);
+
+        log.info("Пользователь {} подписался на события бронирований.", userId);
+        return subscriber.emitter;
+    }
+
+    @TransactionalEventListener
+    public void onBookingChanged(BookingChangedEvent event) {
+        BookingEventDto bookingEventDto = new BookingEventDto(event.getBookingId(), event.getItemId(), event.getStatus());
+        String name = event.getStatus() == Status.WAITING ? "created" : event.getStatus().name().toLowerCase();
+        Supplier<SseEmitter.SseEventBuilder> eventSupplier = () -> SseEmitter.event()
+                .id(String.valueOf(event.getBookingId()))
+                .name(name)
+                .data(bookingEventDto);
+
+        publish(event.getBookerId(), eventSupplier);
+        publish(event.getOwnerId(), eventSupplier);
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.booking.stream.heartbeat-interval}")
+    public void heartbeat() {
+        subscribers.keySet().forEach(userId -> publish(userId, () -> SseEmitter.event().comment("heartbeat")));
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.values().stream().mapToInt(Set::size).sum();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        dispatcher.shutdownNow();
+    }
+
+    private void publish(Long userId, Supplier<SseEmitter.SseEventBuilder> eventSupplier) {
+        Set<Subscriber> userSubscribers = subscribers.get(userId);
+
+        if (userSubscribers != null) {
+            userSubscribers.forEach(subscriber -> subscriber.offer(eventSupplier.get()));
+        }
+    }
+
+    private void unsubscribe(Subscriber subscriber) {
+        subscribers.computeIfPresent(subscriber.userId, (userId, userSubscribers) -> {
+            userSubscribers.remove(subscriber);
+            return userSubscribers.isEmpty() ? null : userSubscribers;
+        });
+    }
+
+    private class Subscriber {
+        private final Long userId;
+        private final SseEmitter emitter = new SseEmitter(timeout);
+        private final BlockingQueue<SseEmitter.SseEventBuilder> buffer = new ArrayBlockingQueue<>(bufferSize);
+        private final AtomicBoolean draining = new AtomicBoolean();
+
+        private Subscriber(Long userId) {
+            this.userId = userId;
+        }
+
+        private void offer(SseEmitter.SseEventBuilder event) {
+            if (!buffer.offer(event)) {
+                log.warn("Подписчик {} не успевает получать события бронирований, поток закрыт.", userId);
+                unsubscribe(this);
+                emitter.complete();
+                return;
+            }
+
+            if (draining.compareAndSet(false, true)) {
+                dispatch();
+            }
+        }
+
+        private void dispatch() {
+            try {
+                dispatcher.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                log.warn("Нет свободных потоков для отправки событий подписчику {}, поток закрыт.", userId);
+                unsubscribe(this);
+                emitter.completeWithError(e);
+            }
+        }
+
+        private void drain() {
+            try {
+                SseEmitter.SseEventBuilder event;
+
+                while ((event = buffer.poll()) != null) {
+                    emitter.send(event);
+                }
+            } catch (IOException | IllegalStateException e) {
+                log.debug("Не удалось отправить событие подписчику {}: {}", userId, e.getMessage());
+                unsubscribe(this);
+                emitter.completeWithError(e);
+                return;
+            }
+
+            draining.set(false);
+
+            if (!buffer.isEmpty() && draining.compareAndSet(false, true)) {
+                dispatch();
+            }
+        }
+    }
+}
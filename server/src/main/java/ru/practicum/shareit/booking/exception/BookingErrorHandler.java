@@ -22,6 +22,12 @@ public class BookingErrorHandler {
         return Map.of("Incorrect data", e.getMessage());
     }
 
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public Map<String, String> handleBookingConflictException(final BookingConflictException e) {
+        return Map.of("Incorrect data", e.getMessage());
+    }
+
     @ExceptionHandler
     @ResponseStatus(HttpStatus.BAD_REQUEST)
     public Map<String, String> handleBadRequestException(final BadRequestException e) {
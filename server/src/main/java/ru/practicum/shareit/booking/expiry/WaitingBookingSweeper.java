@@ -0,0 +1,129 @@
+package ru.practicum.shareit.booking.expiry;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.Status;
+import ru.practicum.shareit.booking.event.BookingChangedEvent;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Переводит в статус EXPIRED бронирования, которые так и не были рассмотрены до даты начала.
+ * Строки выбираются пачками с пропуском заблокированных, поэтому несколько экземпляров сервера не ждут друг друга.
+ */
+@Slf4j
+@Component
+public class WaitingBookingSweeper {
+    private static final String LOCK_STALE = "select id, item_id, booker_id, start_date, end_date from bookings " +
+            "where status = 'WAITING' and start_date < :now " +
+            "order by id fetch first :limit rows only for update";
+    private static final String SKIP_LOCKED = " skip locked";
+    private static final String FIND_OWNERS = "select id, owner_id from items where id in (:itemIds)";
+    private static final String EXPIRE = "update bookings set status = 'EXPIRED', version = version + 1 " +
+            "where id in (:ids)";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final String lockStale;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int batchSize;
+    private final int maxBatches;
+    private final Counter expired;
+    private final DistributionSummary rowsPerRun;
+    private final Timer runTimer;
+
+    public WaitingBookingSweeper(NamedParameterJdbcTemplate jdbcTemplate,
+                                 TransactionTemplate transactionTemplate,
+                                 ApplicationEventPublisher eventPublisher,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${shareit.booking.expiry.batch-size}") int batchSize,
+                                 @Value("${shareit.booking.expiry.max-batches}") int maxBatches,
+                                 @Value("${spring.sql.init.platform}") String platform) {
+        this.jdbcTemplate = jdbcTemplate;
+        // SKIP LOCKED есть только в PostgreSQL; в H2 достаточно обычной блокировки.
+        this.lockStale = "postgresql".equals(platform) ? LOCK_STALE + SKIP_LOCKED : LOCK_STALE;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+        this.batchSize = batchSize;
+        this.maxBatches = maxBatches;
+        this.expired = meterRegistry.counter("shareit.booking.expiry.expired");
+        this.rowsPerRun = DistributionSummary.builder("shareit.booking.expiry.rows")
+                .description("Бронирований переведено в EXPIRED за один проход")
+                .register(meterRegistry);
+        this.runTimer = meterRegistry.timer("shareit.booking.expiry.run");
+    }
+
+    @Scheduled(initialDelayString = "${shareit.booking.expiry.interval}",
+            fixedDelayString = "${shareit.booking.expiry.interval}")
+    public void sweep() {
+        long rows = runTimer.record(() -> {
+            LocalDateTime now = LocalDateTime.now();
+            long total = 0;
+            int batches = 0;
+            int processed;
+
+            do {
+                processed = transactionTemplate.execute(status -> expireBatch(now));
+                total += processed;
+                batches++;
+            } while (processed == batchSize && batches < maxBatches);
+
+            return total;
+        });
+
+        rowsPerRun.record(rows);
+
+        if (rows > 0) {
+            log.info("Просрочено {} неподтверждённых бронирований.", rows);
+        }
+    }
+
+    private int expireBatch(LocalDateTime now) {
+        List<StaleBooking> stale = jdbcTemplate.query(lockStale,
+                new MapSqlParameterSource("now", now).addValue("limit", batchSize),
+                (resultSet, rowNum) -> new StaleBooking(resultSet.getLong("id"), resultSet.getLong("item_id"),
+                        resultSet.getLong("booker_id"), resultSet.getObject("start_date", LocalDateTime.class),
+                        resultSet.getObject("end_date", LocalDateTime.class)));
+
+        if (stale.isEmpty()) {
+            return 0;
+        }
+
+        Map<Long, Long> owners = new HashMap<>();
+        jdbcTemplate.query(FIND_OWNERS, new MapSqlParameterSource("itemIds",
+                        stale.stream().map(booking -> booking.itemId).collect(Collectors.toSet())),
+                resultSet -> {
+                    owners.put(resultSet.getLong("id"), resultSet.getLong("owner_id"));
+                });
+        jdbcTemplate.update(EXPIRE, new MapSqlParameterSource("ids",
+                stale.stream().map(booking -> booking.id).collect(Collectors.toList())));
+        stale.forEach(booking -> eventPublisher.publishEvent(new BookingChangedEvent(booking.id, booking.itemId,
+                Status.EXPIRED, booking.bookerId, owners.get(booking.itemId), booking.start, booking.end)));
+        expired.increment(stale.size());
+        return stale.size();
+    }
+
+    @RequiredArgsConstructor
+    private static class StaleBooking {
+        private final long id;
+        private final long itemId;
+        private final long bookerId;
+        private final LocalDateTime start;
+        private final LocalDateTime end;
+    }
+}
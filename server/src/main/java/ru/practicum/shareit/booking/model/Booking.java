@@ -37,4 +37,9 @@ public class Booking {
     @NonFinal
     @Enumerated(EnumType.STRING)
     private Status status;
+    @Version
+    @Column(name = "version", nullable = false)
+    private long version;
+    @Column(name = "created_date", insertable = false, updatable = false)
+    private LocalDateTime created;
 }
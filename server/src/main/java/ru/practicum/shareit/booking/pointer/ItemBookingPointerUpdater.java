@@ -0,0 +1,96 @@
+package ru.practicum.shareit.booking.pointer;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.Status;
+import ru.practicum.shareit.booking.event.BookingChangedEvent;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Поддерживает указатели на последнее и следующее одобренные бронирования вещи в таблице item_bookings.
+ * Указатели пересчитываются в транзакции одобрения и периодически, когда следующее бронирование становится последним.
+ */
+@Slf4j
+@Component
+public class ItemBookingPointerUpdater {
+    private static final String LOCK_ITEMS = "select id from items where id in (:itemIds) order by id for update";
+    private static final String DELETE_POINTERS = "delete from item_bookings where item_id in (:itemIds)";
+    private static final String INSERT_POINTERS = "insert into item_bookings " +
+            "(item_id, last_booking_id, next_booking_id, next_start_date) " +
+            "select i.id, " +
+            "(select b.id from bookings as b where b.item_id = i.id and b.status = 'APPROVED' " +
+            "and b.start_date < :now order by b.start_date desc, b.id desc fetch first 1 rows only), " +
+            "(select b.id from bookings as b where b.item_id = i.id and b.status = 'APPROVED' " +
+            "and b.start_date > :now order by b.start_date, b.id fetch first 1 rows only), " +
+            "(select min(b.start_date) from bookings as b where b.item_id = i.id and b.status = 'APPROVED' " +
+            "and b.start_date > :now) " +
+            "from items as i where i.id in (:itemIds)";
+    private static final String FIND_DUE = "select item_id from item_bookings where next_start_date <= :now " +
+            "order by item_id fetch first :limit rows only";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+
+    public ItemBookingPointerUpdater(NamedParameterJdbcTemplate jdbcTemplate,
+                                     TransactionTemplate transactionTemplate,
+                                     @Value("${shareit.booking.pointers.chunk-size}") int chunkSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.chunkSize = chunkSize;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void onBookingChanged(BookingChangedEvent event) {
+        if (event.getStatus() == Status.APPROVED) {
+            refresh(Set.of(event.getItemId()), LocalDateTime.now());
+        }
+    }
+
+    /**
+     * Переводит наступившие следующие бронирования в последние.
+     */
+    @Scheduled(fixedDelayString = "${shareit.booking.pointers.roll-interval}")
+    public void rollForward() {
+        LocalDateTime now = LocalDateTime.now();
+        int rolled = 0;
+        List<Long> itemIds;
+
+        do {
+            itemIds = jdbcTemplate.queryForList(FIND_DUE,
+                    new MapSqlParameterSource("now", now).addValue("limit", chunkSize), Long.class);
+
+            if (!itemIds.isEmpty()) {
+                List<Long> chunk = itemIds;
+                transactionTemplate.executeWithoutResult(status -> refresh(chunk, now));
+                rolled += chunk.size();
+            }
+        } while (itemIds.size() == chunkSize);
+
+        if (rolled > 0) {
+            log.debug("Обновлены указатели бронирований для {} вещей.", rolled);
+        }
+    }
+
+    /**
+     * Пересчитывает указатели под блокировкой строк вещей, чтобы параллельные одобрения не затирали друг друга.
+     */
+    public void refresh(Collection<Long> itemIds, LocalDateTime now) {
+        MapSqlParameterSource parameters = new MapSqlParameterSource("itemIds", itemIds).addValue("now", now);
+
+        jdbcTemplate.queryForList(LOCK_ITEMS, parameters, Long.class);
+        jdbcTemplate.update(DELETE_POINTERS, parameters);
+        jdbcTemplate.update(INSERT_POINTERS, parameters);
+    }
+}
@@ -0,0 +1,31 @@
+package ru.practicum.shareit.booking.pointer.model;
+
+import lombok.*;
+import org.hibernate.annotations.Immutable;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Immutable
+@Table(name = "item_bookings")
+public class ItemBookingPointer {
+    @Id
+    @Column(name = "item_id", nullable = false)
+    private Long itemId;
+    @Column(name = "last_booking_id")
+    private Long lastBookingId;
+    @Column(name = "next_booking_id")
+    private Long nextBookingId;
+    @Column(name = "next_start_date")
+    private LocalDateTime nextStart;
+}
@@ -0,0 +1,117 @@
+package ru.practicum.shareit.booking.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.ExportFormat;
+import ru.practicum.shareit.booking.Status;
+import ru.practicum.shareit.booking.dto.BookingDto;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+
+@Slf4j
+@Component
+class BookingExporter {
+    private static final String CSV_HEADER = "id,start,end,status,item_id,item_name,booker_id";
+    private static final String SELECT_OWNER_BOOKINGS = "select b.id, b.start_date, b.end_date, b.status, " +
+            "i.id as item_id, i.name as item_name, b.booker_id " +
+            "from bookings as b join items as i on i.id = b.item_id " +
+            "where i.owner_id = ? order by b.start_date, b.id";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final int fetchSize;
+
+    BookingExporter(JdbcTemplate jdbcTemplate,
+                    PlatformTransactionManager transactionManager,
+                    ObjectMapper objectMapper,
+                    @Value("${shareit.booking.export.fetch-size}") int fetchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.objectMapper = objectMapper;
+        this.fetchSize = fetchSize;
+    }
+
+    /**
+     * Выгружает бронирования вещей владельца построчно из курсора: в памяти держится только текущая строка.
+     */
+    void export(Long ownerId, ExportFormat format, OutputStream outputStream) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+
+        if (format == ExportFormat.CSV) {
+            writer.write(CSV_HEADER);
+            writer.write('\n');
+        }
+
+        try {
+            Long rows = transactionTemplate.execute(status -> jdbcTemplate.query(connection -> {
+                PreparedStatement statement = connection.prepareStatement(SELECT_OWNER_BOOKINGS,
+                        ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                statement.setFetchSize(fetchSize);
+                statement.setLong(1, ownerId);
+                return statement;
+            }, resultSet -> {
+                long count = 0;
+
+                while (resultSet.next()) {
+                    writeRow(writer, format, toBookingDto(resultSet));
+                    count++;
+                }
+
+                return count;
+            }));
+
+            log.info("Выгружено {} бронирований владельца с ID {}.", rows, ownerId);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        writer.flush();
+    }
+
+    private BookingDto toBookingDto(ResultSet resultSet) throws SQLException {
+        return new BookingDto(resultSet.getLong("id"),
+                resultSet.getObject("start_date", LocalDateTime.class),
+                resultSet.getObject("end_date", LocalDateTime.class),
+                resultSet.getLong("item_id"),
+                resultSet.getString("item_name"),
+                resultSet.getLong("booker_id"),
+                Status.valueOf(resultSet.getString("status")));
+    }
+
+    private void writeRow(Writer writer, ExportFormat format, BookingDto booking) {
+        try {
+            if (format == ExportFormat.NDJSON) {
+                writer.write(objectMapper.writeValueAsString(booking));
+            } else {
+                writer.write(String.join(",", String.valueOf(booking.getId()), booking.getStart().toString(),
+                        booking.getEnd().toString(), booking.getStatus().name(),
+                        String.valueOf(booking.getItem().getId()), toCsvField(booking.getItem().getName()),
+                        String.valueOf(booking.getBooker().getId())));
+            }
+
+            writer.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private String toCsvField(String value) {
+        if (value.contains(",") || value.contains("\"") || value.contains("\n") || value.contains("\r")) {
+            return "\"" + value.replace("\"", "\"\"") + "\"";
+        }
+
+        return value;
+    }
+}
@@ -1,16 +1,27 @@
 package ru.practicum.shareit.booking.service;
 
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.practicum.shareit.booking.ExportFormat;
 import ru.practicum.shareit.booking.State;
 import ru.practicum.shareit.booking.Status;
+import ru.practicum.shareit.booking.dto.BookingBatchDto;
+import ru.practicum.shareit.booking.dto.BookingBatchResultDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingShortDto;
+import ru.practicum.shareit.booking.dto.IntervalDto;
+import ru.practicum.shareit.booking.dto.ItemUtilizationDto;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.etag.ETagSource;
+import ru.practicum.shareit.pagination.Cursor;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
-public interface BookingService {
+public interface BookingService extends ETagSource {
     BookingDto create(Long userId, BookingShortDto bookingShortDto);
 
     BookingDto getById(Long userId, Long id);
@@ -19,11 +30,29 @@ public interface BookingService {
 
     List<BookingDto> getAllBookingsByOwner(Long userId, State value, Integer from, Integer size);
 
+    List<BookingDto> getAllBookingsByUserAfter(Long userId, State value, Cursor cursor, Integer size);
+
+    List<BookingDto> getAllBookingsByOwnerAfter(Long userId, State value, Cursor cursor, Integer size);
+
     BookingDto updateBookingStatus(Long userId, Long id, Boolean value);
 
-    Optional<Booking> findLastItem(Long itemId);
+    List<BookingBatchResultDto> updateBookingStatuses(Long userId, BookingBatchDto bookingBatchDto);
+
+    SseEmitter subscribe(Long userId);
+
+    StreamingResponseBody export(Long userId, ExportFormat format);
+
+    List<ItemUtilizationDto> getOwnerStats(Long userId, LocalDateTime from, LocalDateTime to);
+
+    Optional<BookingShortDto> findLastItem(Long itemId);
+
+    Optional<BookingShortDto> findNextItem(Long itemId);
+
+    Map<Long, BookingShortDto> findLastBookings(Collection<Long> itemIds);
+
+    Map<Long, BookingShortDto> findNextBookings(Collection<Long> itemIds);
 
-    Optional<Booking> findNextItem(Long itemId);
+    List<IntervalDto> findActiveIntervals(Long itemId);
 
     List<Booking> findAllByBookerIdAndItemId(Long userId, Long itemId, Status status, LocalDateTime localDateTime);
 }
@@ -1,29 +1,53 @@
 package ru.practicum.shareit.booking.service;
 
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.PageRequest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.practicum.shareit.booking.BatchOutcome;
 import ru.practicum.shareit.booking.BookingMapper;
 import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.ExportFormat;
+import ru.practicum.shareit.booking.Role;
 import ru.practicum.shareit.booking.State;
 import ru.practicum.shareit.booking.Status;
+import ru.practicum.shareit.booking.dto.BookingBatchDto;
+import ru.practicum.shareit.booking.dto.BookingBatchResultDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingShortDto;
+import ru.practicum.shareit.booking.dto.IntervalDto;
+import ru.practicum.shareit.booking.dto.ItemUtilizationDto;
+import ru.practicum.shareit.booking.event.BookingChangedEvent;
+import ru.practicum.shareit.booking.event.BookingEventBus;
+import ru.practicum.shareit.booking.exception.BookingConflictException;
 import ru.practicum.shareit.booking.exception.BookingNotFoundException;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.stats.OwnerUtilizationStats;
 import ru.practicum.shareit.item.ItemRepository;
 import ru.practicum.shareit.item.exceptions.ItemNotFoundException;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.pagination.Cursor;
+import ru.practicum.shareit.pagination.FromSizeRequest;
 import ru.practicum.shareit.user.UserMapper;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.service.UserService;
 
 import javax.validation.ValidationException;
+import java.sql.SQLException;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.locks.Lock;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import static ru.practicum.shareit.booking.Status.*;
@@ -31,27 +55,65 @@ import static ru.practicum.shareit.booking.Status.*;
 @Service
 @Slf4j
 public class BookingServiceImpl implements BookingService {
+    private static final String EXCLUSION_VIOLATION = "23P01";
+    private static final String OVERLAP_CONSTRAINT = "bookings_item_id_period_excl";
+
     private final BookingRepository bookingRepository;
     private final UserService userService;
     private final ItemRepository itemRepository;
     private final BookingMapper bookingMapper;
     private final UserMapper userMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final StripedLocks itemLocks;
+    private final BookingEventBus bookingEventBus;
+    private final BookingExporter bookingExporter;
+    private final OwnerUtilizationStats ownerUtilizationStats;
 
     public BookingServiceImpl(BookingRepository bookingRepository,
                               UserService userService,
                               ItemRepository itemRepository,
                               BookingMapper bookingMapper,
-                              UserMapper userMapper) {
+                              UserMapper userMapper,
+                              ApplicationEventPublisher eventPublisher,
+                              TransactionTemplate transactionTemplate,
+                              StripedLocks itemLocks,
+                              BookingEventBus bookingEventBus,
+                              BookingExporter bookingExporter,
+                              OwnerUtilizationStats ownerUtilizationStats) {
         this.bookingRepository = bookingRepository;
         this.userService = userService;
         this.itemRepository = itemRepository;
         this.bookingMapper = bookingMapper;
         this.userMapper = userMapper;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = transactionTemplate;
+        this.itemLocks = itemLocks;
+        this.bookingEventBus = bookingEventBus;
+        this.bookingExporter = bookingExporter;
+        this.ownerUtilizationStats = ownerUtilizationStats;
     }
 
-    @Transactional
     @Override
     public BookingDto create(Long userId, BookingShortDto bookingShortDto) {
+        Lock lock = itemLocks.get(bookingShortDto.getItemId());
+
+        lock.lock();
+        try {
+            return transactionTemplate.execute(status -> createBooking(userId, bookingShortDto));
+        } catch (DataIntegrityViolationException e) {
+            if (!isOverlapViolation(e)) {
+                throw e;
+            }
+
+            log.warn("Бронирование пересекается с существующим: {}", e.getMessage());
+            throw new BookingConflictException("Вещь уже забронирована на указанный период.");
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private BookingDto createBooking(Long userId, BookingShortDto bookingShortDto) {
         User booker = userMapper.toUser(userService.getById(userId));
         Item item = isBookingValid(bookingShortDto);
 
@@ -60,42 +122,119 @@ public class BookingServiceImpl implements BookingService {
             throw new BookingNotFoundException("Нельзя забронировать собственную вещь.");
         }
 
+        if (bookingRepository.existsByItemIdAndStatusInAndStartBeforeAndEndAfter(item.getId(), List.of(WAITING, APPROVED),
+                bookingShortDto.getEnd(), bookingShortDto.getStart())) {
+            log.warn("Вещь с ID {} уже забронирована на указанный период.", item.getId());
+            throw new BookingConflictException("Вещь уже забронирована на указанный период.");
+        }
+
         Booking booking = bookingMapper.toBooking(bookingShortDto);
         booking.setBooker(booker);
         booking.setItem(item);
         booking.setStatus(WAITING);
-        bookingRepository.save(booking);
+        bookingRepository.saveAndFlush(booking);
 
         log.info(String.format("Новое бронирование в базе: id # %d.", booking.getId()));
+        eventPublisher.publishEvent(new BookingChangedEvent(booking.getId(), item.getId(), booking.getStatus(),
+                booker.getId(), item.getOwner().getId(), booking.getStart(), booking.getEnd()));
         return bookingMapper.toBookingDto(booking);
     }
 
     @Transactional
     @Override
     public BookingDto updateBookingStatus(Long userId, Long id, Boolean approved) {
+        Status status = approved ? APPROVED : REJECTED;
+
+        if (bookingRepository.updateStatusIfWaiting(id, userId, status) == 0) {
+            throw statusNotUpdated(userId, id, approved);
+        }
+
+        Booking booking = findBooking(id);
+        log.info("Бронирование с ID {} переведено в статус {}.", id, status);
+        eventPublisher.publishEvent(new BookingChangedEvent(booking.getId(), booking.getItem().getId(), booking.getStatus(),
+                booking.getBooker().getId(), userId, booking.getStart(), booking.getEnd()));
+        return bookingMapper.toBookingDto(booking);
+    }
+
+    /**
+     * Меняет статус нескольких бронирований одним запросом; строки блокируются, чтобы исходы совпадали с обновлением.
+     */
+    @Transactional
+    @Override
+    public List<BookingBatchResultDto> updateBookingStatuses(Long userId, BookingBatchDto bookingBatchDto) {
+        if (bookingBatchDto.getIds() == null || bookingBatchDto.getIds().isEmpty()
+                || bookingBatchDto.getApproved() == null) {
+            throw new ValidationException("Необходимо указать бронирования и решение по ним.");
+        }
+
         userService.getById(userId);
-        Booking booking = bookingMapper.toBooking(getById(userId, id));
-
-        if (userId.equals(booking.getItem().getOwner().getId())) {
-            if (approved) {
-                if (booking.getStatus().equals(WAITING)) {
-                    booking.setStatus(Status.APPROVED);
-                } else {
-                    throw new ValidationException("Бронирование уже одобрено.");
-                }
+        Status status = bookingBatchDto.getApproved() ? APPROVED : REJECTED;
+        Map<Long, Booking> bookings = bookingRepository.findAllByIdInForUpdate(bookingBatchDto.getIds())
+                .stream()
+                .collect(Collectors.toMap(Booking::getId, Function.identity()));
+        List<BookingBatchResultDto> results = new ArrayList<>();
+        List<Booking> updated = new ArrayList<>();
+
+        for (Long id : new LinkedHashSet<>(bookingBatchDto.getIds())) {
+            Booking booking = bookings.get(id);
+            BatchOutcome outcome;
+
+            if (booking == null) {
+                outcome = BatchOutcome.NOT_FOUND;
+            } else if (!userId.equals(booking.getItem().getOwner().getId())) {
+                outcome = BatchOutcome.FORBIDDEN;
+            } else if (booking.getStatus() != WAITING) {
+                outcome = BatchOutcome.ALREADY_DECIDED;
             } else {
-                if (booking.getStatus().equals(WAITING)) {
-                    booking.setStatus(REJECTED);
-                } else {
-                    throw new ValidationException("Бронирование уже отклонено.");
-                }
+                outcome = BatchOutcome.UPDATED;
+                updated.add(booking);
             }
-        } else {
-            throw new BookingNotFoundException("Действие может совершить только владелец вещи.");
+
+            results.add(new BookingBatchResultDto(id, outcome));
         }
 
-        bookingRepository.save(booking);
-        return bookingMapper.toBookingDto(booking);
+        if (!updated.isEmpty()) {
+            updated.sort(Comparator.comparing(booking -> booking.getItem().getId()));
+            bookingRepository.updateStatusIfWaiting(updated.stream().map(Booking::getId).collect(Collectors.toList()),
+                    userId, status);
+            updated.forEach(booking -> eventPublisher.publishEvent(
+                    new BookingChangedEvent(booking.getId(), booking.getItem().getId(), status,
+                            booking.getBooker().getId(), userId, booking.getStart(), booking.getEnd())));
+        }
+
+        log.info("Пользователь {} перевёл {} бронирований в статус {}.", userId, updated.size(), status);
+        return results;
+    }
+
+    @Override
+    public SseEmitter subscribe(Long userId) {
+        userService.getById(userId);
+        return bookingEventBus.subscribe(userId);
+    }
+
+    @Override
+    public StreamingResponseBody export(Long userId, ExportFormat format) {
+        userService.getById(userId);
+        return outputStream -> bookingExporter.export(userId, format, outputStream);
+    }
+
+    @Override
+    public List<ItemUtilizationDto> getOwnerStats(Long userId, LocalDateTime from, LocalDateTime to) {
+        if (!to.isAfter(from)) {
+            throw new ValidationException("Дата окончания периода должна быть позже даты начала.");
+        }
+
+        userService.getById(userId);
+        return ownerUtilizationStats.getUtilization(userId, from, to);
+    }
+
+    @Override
+    public String getETag(Long id, Long userId) {
+        return bookingRepository.findVersionById(id)
+                .filter(version -> version.getBookerId().equals(userId) || version.getOwnerId().equals(userId))
+                .map(version -> String.format("%d-%d-%d-%d", version.getVersion(), version.getItemVersion(),
+                        version.getBookerVersion(), version.getOwnerVersion()))
+                .orElse(null);
     }
 
     @Transactional(readOnly = true)
@@ -122,78 +261,61 @@ public class BookingServiceImpl implements BookingService {
     @Transactional(readOnly = true)
     @Override
     public List<BookingDto> getAllBookingsByUser(Long userId, State state, Integer from, Integer size) {
-        User user = userMapper.toUser(userService.getById(userId));
-        List<Booking> allBookings = new ArrayList<>();
-        PageRequest pageRequest = PageRequest.of(from / size, size);
-
-        switch (state) {
-            case ALL:
-                allBookings.addAll(bookingRepository.findAllByBookerOrderByStartDesc(user, pageRequest));
-                break;
-            case CURRENT:
-                allBookings.addAll(bookingRepository.findAllByBookerAndStartBeforeAndEndAfterOrderByStartDesc(user, LocalDateTime.now(), LocalDateTime.now(), pageRequest));
-                break;
-            case PAST:
-                allBookings.addAll(bookingRepository.findAllByBookerAndEndBeforeOrderByStartDesc(user, LocalDateTime.now(), pageRequest));
-                break;
-            case FUTURE:
-                allBookings.addAll(bookingRepository.findAllByBookerAndStartAfterOrderByStartDesc(user, LocalDateTime.now(), pageRequest));
-                break;
-            case WAITING:
-                allBookings.addAll(bookingRepository.findAllByBookerAndStatusEqualsOrderByStartDesc(user, WAITING, pageRequest));
-                break;
-            case REJECTED:
-                allBookings.addAll(bookingRepository.findAllByBookerAndStatusEqualsOrderByStartDesc(user, REJECTED, pageRequest));
-                break;
-        }
-
-        return allBookings
-                .stream()
-                .map(bookingMapper::toBookingDto)
-                .collect(Collectors.toList());
+        userService.getById(userId);
+        return findBookings(userId, Role.BOOKER, state, null, FromSizeRequest.of(from, size).getOffset(), size);
     }
 
     @Transactional(readOnly = true)
     @Override
     public List<BookingDto> getAllBookingsByOwner(Long userId, State state, Integer from, Integer size) {
-        User user = userMapper.toUser(userService.getById(userId));
-        List<Booking> allBookings = new ArrayList<>();
-        PageRequest pageRequest = PageRequest.of(from / size, size);
-
-        switch (state) {
-            case ALL:
-                allBookings.addAll(bookingRepository.findAllByItemOwnerOrderByStartDesc(user, pageRequest));
-                break;
-            case CURRENT:
-                allBookings.addAll(bookingRepository.findAllByItemOwnerAndStartBeforeAndEndAfterOrderByStartDesc(user, LocalDateTime.now(), LocalDateTime.now(), pageRequest));
-                break;
-            case PAST:
-                allBookings.addAll(bookingRepository.findAllByItemOwnerAndEndBeforeOrderByStartDesc(user, LocalDateTime.now(), pageRequest));
-                break;
-            case FUTURE:
-                allBookings.addAll(bookingRepository.findAllByItemOwnerAndStartAfterOrderByStartDesc(user, LocalDateTime.now(), pageRequest));
-                break;
-            case WAITING:
-                allBookings.addAll(bookingRepository.findAllByItemOwnerAndStatusEqualsOrderByStartDesc(user, WAITING, pageRequest));
-                break;
-            case REJECTED:
-                allBookings.addAll(bookingRepository.findAllByItemOwnerAndStatusEqualsOrderByStartDesc(user, REJECTED, pageRequest));
-                break;
-        }
-        return allBookings
-                .stream()
-                .map(bookingMapper::toBookingDto)
-                .collect(Collectors.toList());
+        userService.getById(userId);
+        return findBookings(userId, Role.OWNER, state, null, FromSizeRequest.of(from, size).getOffset(), size);
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public List<BookingDto> getAllBookingsByUserAfter(Long userId, State state, Cursor cursor, Integer size) {
+        userService.getById(userId);
+        checkCursor(cursor);
+        return findBookings(userId, Role.BOOKER, state, cursor, 0, size);
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public List<BookingDto> getAllBookingsByOwnerAfter(Long userId, State state, Cursor cursor, Integer size) {
+        userService.getById(userId);
+        checkCursor(cursor);
+        return findBookings(userId, Role.OWNER, state, cursor, 0, size);
+    }
+
+    @Override
+    public Optional<BookingShortDto> findLastItem(Long itemId) {
+        return Optional.ofNullable(findLastBookings(List.of(itemId)).get(itemId));
+    }
+
+    @Override
+    public Optional<BookingShortDto> findNextItem(Long itemId) {
+        return Optional.ofNullable(findNextBookings(List.of(itemId)).get(itemId));
     }
 
     @Override
-    public Optional<Booking> findLastItem(Long itemId) {
-        return bookingRepository.findLastItem(itemId, LocalDateTime.now());
+    public List<IntervalDto> findActiveIntervals(Long itemId) {
+        return bookingRepository.findIntervalsByItemIdAndStatusInAndEndAfter(itemId, List.of(WAITING, APPROVED),
+                LocalDateTime.now());
     }
 
     @Override
-    public Optional<Booking> findNextItem(Long itemId) {
-        return bookingRepository.findNextItem(itemId, LocalDateTime.now());
+    public Map<Long, BookingShortDto> findLastBookings(Collection<Long> itemIds) {
+        return bookingRepository.findLastBookings(itemIds)
+                .stream()
+                .collect(Collectors.toMap(BookingShortDto::getItemId, Function.identity(), (first, second) -> first));
+    }
+
+    @Override
+    public Map<Long, BookingShortDto> findNextBookings(Collection<Long> itemIds) {
+        return bookingRepository.findNextBookings(itemIds)
+                .stream()
+                .collect(Collectors.toMap(BookingShortDto::getItemId, Function.identity(), (first, second) -> first));
     }
 
     @Override
@@ -201,8 +323,53 @@ public class BookingServiceImpl implements BookingService {
         return bookingRepository.findAllByBookerIdAndItemIdAndStatusEqualsAndEndIsBefore(userId, itemId, APPROVED, LocalDateTime.now());
     }
 
+    private Booking findBooking(Long id) {
+        return bookingRepository.findById(id).orElseThrow(
+                () -> new BookingNotFoundException(String.format("Бронирование с ID %d не найдено.", id))
+        );
+    }
+
+    /**
+     * Нарушено ли ограничение-исключение пересечения периодов из schema-postgresql.sql.
+     */
+    private static boolean isOverlapViolation(DataIntegrityViolationException e) {
+        Throwable cause = e.getMostSpecificCause();
+
+        return cause instanceof SQLException
+                && EXCLUSION_VIOLATION.equals(((SQLException) cause).getSQLState())
+                && cause.getMessage() != null && cause.getMessage().contains(OVERLAP_CONSTRAINT);
+    }
+
+    /**
+     * Выясняет, почему условное обновление статуса не затронуло ни одной строки.
+     */
+    private RuntimeException statusNotUpdated(Long userId, Long id, Boolean approved) {
+        userService.getById(userId);
+        Booking booking = findBooking(id);
+
+        if (!userId.equals(booking.getItem().getOwner().getId())) {
+            return new BookingNotFoundException("Действие может совершить только владелец вещи.");
+        }
+
+        if (booking.getStatus() == EXPIRED) {
+            return new ValidationException("Бронирование не было рассмотрено до даты начала и просрочено.");
+        }
+
+        return new ValidationException(approved ? "Бронирование уже одобрено." : "Бронирование уже отклонено.");
+    }
+
+    private void checkCursor(Cursor cursor) {
+        if (cursor != null && cursor.getTimestamp() == null) {
+            throw new ValidationException("Некорректный курсор бронирования.");
+        }
+    }
+
+    private List<BookingDto> findBookings(Long userId, Role role, State state, Cursor cursor, long offset, int size) {
+        return bookingRepository.findBookings(userId, role, state, LocalDateTime.now(), cursor, offset, size);
+    }
+
     private Item isBookingValid(BookingShortDto bookingShortDto) {
-        Item item = itemRepository.findById(bookingShortDto.getItemId()).orElseThrow(
+        Item item = itemRepository.findByIdForUpdate(bookingShortDto.getItemId()).orElseThrow(
                 () -> new ItemNotFoundException(String.format("Вещь с ID %d не найдена.", bookingShortDto.getItemId()))
         );
         LocalDateTime start = bookingShortDto.getStart();
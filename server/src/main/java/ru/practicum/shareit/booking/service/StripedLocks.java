@@ -0,0 +1,31 @@
+package ru.practicum.shareit.booking.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Фиксированный набор блокировок: запросы к одной вещи выполняются последовательно, к разным — параллельно.
+ */
+@Component
+class StripedLocks {
+    private final Lock[] locks;
+    private final int mask;
+
+    StripedLocks(@Value("${shareit.booking.lock-stripes}") int stripes) {
+        int size = Integer.highestOneBit(Math.max(1, stripes - 1)) << 1;
+        locks = new Lock[size];
+        mask = size - 1;
+
+        for (int i = 0; i < size; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    Lock get(Long id) {
+        int hash = Long.hashCode(id == null ? 0L : id);
+        return locks[(hash ^ (hash >>> 16)) & mask];
+    }
+}
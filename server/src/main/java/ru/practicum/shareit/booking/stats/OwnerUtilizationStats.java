@@ -0,0 +1,197 @@
+package ru.practicum.shareit.booking.stats;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.EqualsAndHashCode;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.practicum.shareit.booking.dto.ItemUtilizationDto;
+import ru.practicum.shareit.booking.event.BookingChangedEvent;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Считает загрузку вещей владельца по месячным интервалам и кэширует агрегаты полных календарных месяцев.
+ * Неполные месяцы на краях периода считаются заново при каждом запросе, поэтому произвольные границы
+ * не раздувают кэш. При изменении бронирования сбрасываются только месяцы владельца, которые оно затрагивает.
+ */
+@Slf4j
+@Component
+public class OwnerUtilizationStats {
+    private static final double SECONDS_PER_DAY = 86_400d;
+    private static final String AGGREGATE = "select i.id as item_id, i.name as item_name, " +
+            "coalesce(sum(case when b.status = 'APPROVED' then " +
+            "extract(epoch from least(b.end_date, :to)) - extract(epoch from greatest(b.start_date, :from)) " +
+            "else 0 end), 0) as booked_seconds, " +
+            "count(case when b.start_date >= :from then 1 end) as bookings, " +
+            "count(case when b.start_date >= :from and b.status = 'APPROVED' then 1 end) as approved, " +
+            "count(case when b.start_date >= :from and b.status = 'REJECTED' then 1 end) as rejected, " +
+            "coalesce(sum(case when b.start_date >= :from and b.status = 'APPROVED' then " +
+            "extract(epoch from b.start_date) - extract(epoch from b.created_date) else 0 end), 0) as lead_seconds " +
+            "from items as i " +
+            "left join bookings as b on b.item_id = i.id and b.start_date < :to and b.end_date > :from " +
+            "where i.owner_id = :ownerId " +
+            "group by i.id, i.name " +
+            "order by i.id";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final Cache<MonthKey, List<ItemUsage>> months;
+    private final AtomicLong generation = new AtomicLong();
+
+    public OwnerUtilizationStats(NamedParameterJdbcTemplate jdbcTemplate,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${shareit.booking.stats.maximum-rows}") long maximumRows,
+                                 @Value("${shareit.booking.stats.expire-after-access}") Duration expireAfterAccess) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.months = Caffeine.newBuilder()
+                .maximumWeight(maximumRows)
+                .<MonthKey, List<ItemUsage>>weigher((key, usages) -> usages.size() + 1)
+                .expireAfterAccess(expireAfterAccess)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, months, "ownerUtilization");
+    }
+
+    /**
+     * Загрузка вещей владельца за период [from, to): бронирования, одобрения и время до начала учитываются
+     * по дате начала, занятые дни — по пересечению одобренных бронирований с периодом.
+     */
+    public List<ItemUtilizationDto> getUtilization(Long ownerId, LocalDateTime from, LocalDateTime to) {
+        Map<Long, ItemUsage> totals = new LinkedHashMap<>();
+
+        for (Bucket bucket : Bucket.split(from, to)) {
+            List<ItemUsage> usages = bucket.isWholeMonth() ? getMonth(ownerId, bucket) : aggregate(ownerId, bucket);
+
+            for (ItemUsage usage : usages) {
+                totals.merge(usage.itemId, usage, ItemUsage::plus);
+            }
+        }
+
+        double periodDays = Duration.between(from, to).getSeconds() / SECONDS_PER_DAY;
+        return totals.values()
+                .stream()
+                .map(usage -> usage.toDto(periodDays))
+                .collect(Collectors.toList());
+    }
+
+    @TransactionalEventListener
+    public void onBookingChanged(BookingChangedEvent event) {
+        generation.incrementAndGet();
+
+        for (Bucket bucket : Bucket.split(Bucket.monthStart(event.getStart()), event.getEnd())) {
+            months.invalidate(new MonthKey(event.getOwnerId(), bucket.from));
+        }
+    }
+
+    private List<ItemUsage> getMonth(Long ownerId, Bucket bucket) {
+        MonthKey key = new MonthKey(ownerId, bucket.from);
+        List<ItemUsage> usages = months.getIfPresent(key);
+
+        if (usages != null) {
+            return usages;
+        }
+
+        long version = generation.get();
+        usages = aggregate(ownerId, bucket);
+
+        // Агрегат, посчитанный во время изменения бронирования, может быть устаревшим и в кэш не попадает.
+        if (generation.get() == version) {
+            months.put(key, usages);
+        }
+
+        return usages;
+    }
+
+    private List<ItemUsage> aggregate(Long ownerId, Bucket bucket) {
+        List<ItemUsage> usages = jdbcTemplate.query(AGGREGATE, new MapSqlParameterSource("ownerId", ownerId)
+                        .addValue("from", bucket.from)
+                        .addValue("to", bucket.to),
+                (resultSet, rowNum) -> new ItemUsage(resultSet.getLong("item_id"), resultSet.getString("item_name"),
+                        resultSet.getDouble("booked_seconds"), resultSet.getLong("bookings"),
+                        resultSet.getLong("approved"), resultSet.getLong("rejected"),
+                        resultSet.getDouble("lead_seconds")));
+
+        log.debug("Пересчитана загрузка вещей владельца с ID {} за период {} - {}.", ownerId, bucket.from, bucket.to);
+        return usages;
+    }
+
+    @EqualsAndHashCode
+    @RequiredArgsConstructor
+    private static final class MonthKey {
+        private final long ownerId;
+        private final LocalDateTime month;
+    }
+
+    @RequiredArgsConstructor
+    private static final class Bucket {
+        private final LocalDateTime from;
+        private final LocalDateTime to;
+
+        private static List<Bucket> split(LocalDateTime from, LocalDateTime to) {
+            List<Bucket> buckets = new ArrayList<>();
+            LocalDateTime start = from;
+
+            while (start.isBefore(to)) {
+                LocalDateTime nextMonth = monthStart(start).plusMonths(1);
+                LocalDateTime end = nextMonth.isBefore(to) ? nextMonth : to;
+                buckets.add(new Bucket(start, end));
+                start = end;
+            }
+
+            return buckets;
+        }
+
+        private static LocalDateTime monthStart(LocalDateTime dateTime) {
+            return dateTime.truncatedTo(ChronoUnit.DAYS).withDayOfMonth(1);
+        }
+
+        private boolean isWholeMonth() {
+            return from.equals(monthStart(from)) && to.equals(from.plusMonths(1));
+        }
+    }
+
+    @RequiredArgsConstructor
+    private static final class ItemUsage {
+        private final long itemId;
+        private final String itemName;
+        private final double bookedSeconds;
+        private final long bookings;
+        private final long approved;
+        private final long rejected;
+        private final double leadSeconds;
+
+        private ItemUsage plus(ItemUsage other) {
+            return new ItemUsage(itemId, itemName, bookedSeconds + other.bookedSeconds, bookings + other.bookings,
+                    approved + other.approved, rejected + other.rejected, leadSeconds + other.leadSeconds);
+        }
+
+        private ItemUtilizationDto toDto(double periodDays) {
+            double bookedDays = bookedSeconds / SECONDS_PER_DAY;
+
+            return ItemUtilizationDto.builder()
+                    .itemId(itemId)
+                    .itemName(itemName)
+                    .bookings(bookings)
+                    .bookedDays(bookedDays)
+                    .occupancy(bookedDays / periodDays)
+                    .approvalRate(approved + rejected == 0 ? null : (double) approved / (approved + rejected))
+                    .averageLeadTimeDays(approved == 0 ? null : leadSeconds / approved / SECONDS_PER_DAY)
+                    .build();
+        }
+    }
+}
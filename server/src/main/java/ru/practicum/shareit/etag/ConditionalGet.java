@@ -0,0 +1,14 @@
+package ru.practicum.shareit.etag;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ConditionalGet {
+    Class<? extends ETagSource> value();
+
+    String pathVariable() default "id";
+}
@@ -0,0 +1,55 @@
+package ru.practicum.shareit.etag;
+
+import org.springframework.context.ApplicationContext;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.util.Map;
+
+class ConditionalGetInterceptor implements HandlerInterceptor {
+    private static final String USER_ID_HEADER = "X-Sharer-User-Id";
+
+    private final ApplicationContext applicationContext;
+
+    ConditionalGetInterceptor(ApplicationContext applicationContext) {
+        this.applicationContext = applicationContext;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!(handler instanceof HandlerMethod) || !"GET".equals(request.getMethod())) {
+            return true;
+        }
+
+        ConditionalGet conditionalGet = ((HandlerMethod) handler).getMethodAnnotation(ConditionalGet.class);
+
+        if (conditionalGet == null) {
+            return true;
+        }
+
+        ETagSource eTagSource = applicationContext.getBeanProvider(conditionalGet.value()).getIfAvailable();
+        @SuppressWarnings("unchecked")
+        Map<String, String> pathVariables = (Map<String, String>) request.getAttribute(
+                HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+
+        if (eTagSource == null || pathVariables == null) {
+            return true;
+        }
+
+        String eTag;
+
+        try {
+            String userId = request.getHeader(USER_ID_HEADER);
+            eTag = eTagSource.getETag(Long.valueOf(pathVariables.get(conditionalGet.pathVariable())),
+                    userId == null ? null : Long.valueOf(userId));
+        } catch (NumberFormatException e) {
+            return true;
+        }
+
+        return eTag == null || !new ServletWebRequest(request, response).checkNotModified(eTag);
+    }
+}
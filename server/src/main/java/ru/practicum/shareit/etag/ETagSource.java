@@ -0,0 +1,5 @@
+package ru.practicum.shareit.etag;
+
+public interface ETagSource {
+    String getETag(Long id, Long userId);
+}
@@ -0,0 +1,25 @@
+package ru.practicum.shareit.etag;
+
+import javax.validation.ValidationException;
+
+public final class ETags {
+    private ETags() {
+    }
+
+    public static Long parseVersion(String eTag) {
+        String value = eTag.trim();
+
+        if (value.startsWith("W/")) {
+            value = value.substring(2);
+        }
+
+        value = value.replace("\"", "");
+        int separator = value.indexOf('-');
+
+        try {
+            return Long.parseLong(separator < 0 ? value : value.substring(0, separator));
+        } catch (NumberFormatException e) {
+            throw new ValidationException("Некорректный заголовок If-Match: " + eTag);
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package ru.practicum.shareit.idempotency;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+public class IdempotencyConfig implements WebMvcConfigurer {
+    private final ApplicationContext applicationContext;
+    private final ObjectMapper objectMapper;
+
+    public IdempotencyConfig(ApplicationContext applicationContext, ObjectMapper objectMapper) {
+        this.applicationContext = applicationContext;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new IdempotencyInterceptor(applicationContext, objectMapper));
+    }
+}
@@ -0,0 +1,116 @@
+package ru.practicum.shareit.idempotency;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationContext;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Optional;
+
+@Slf4j
+class IdempotencyInterceptor implements HandlerInterceptor {
+    static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    static final String REPLAYED_HEADER = "Idempotent-Replayed";
+    static final String KEY_ATTRIBUTE = IdempotencyInterceptor.class.getName() + ".key";
+    private static final String USER_ID_HEADER = "X-Sharer-User-Id";
+    private static final int MAX_KEY_LENGTH = 255;
+    private static final String EMPTY_BODY_HASH = RequestBodyHashFilter.hash(new byte[0]);
+
+    private final ApplicationContext applicationContext;
+    private final ObjectMapper objectMapper;
+
+    IdempotencyInterceptor(ApplicationContext applicationContext, ObjectMapper objectMapper) {
+        this.applicationContext = applicationContext;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler)
+            throws IOException {
+        String value = request.getHeader(IDEMPOTENCY_KEY_HEADER);
+
+        if (value == null || !(handler instanceof HandlerMethod)
+                || !((HandlerMethod) handler).hasMethodAnnotation(Idempotent.class)) {
+            return true;
+        }
+
+        IdempotencyStore store = applicationContext.getBeanProvider(IdempotencyStore.class).getIfAvailable();
+        String userId = request.getHeader(USER_ID_HEADER);
+
+        if (store == null || userId == null) {
+            return true;
+        }
+
+        if (value.isBlank() || value.length() > MAX_KEY_LENGTH) {
+            return reject(response, HttpStatus.BAD_REQUEST, "Некорректный заголовок Idempotency-Key.");
+        }
+
+        IdempotencyStore.Key key;
+
+        try {
+            key = new IdempotencyStore.Key(Long.parseLong(userId),
+                    request.getMethod() + " " + request.getRequestURI(), value);
+        } catch (NumberFormatException e) {
+            return true;
+        }
+
+        Object bodyHash = request.getAttribute(RequestBodyHashFilter.BODY_HASH_ATTRIBUTE);
+        String requestHash = bodyHash == null ? EMPTY_BODY_HASH : (String) bodyHash;
+        Optional<IdempotencyStore.StoredResponse> stored = store.find(key);
+
+        if (stored.isEmpty()) {
+            Optional<IdempotencyStore.Reservation> reservation = store.reserve(key, requestHash);
+
+            if (reservation.isPresent()) {
+                request.setAttribute(KEY_ATTRIBUTE, reservation.get());
+                return true;
+            }
+
+            stored = store.find(key);
+        }
+
+        if (stored.isPresent() && !requestHash.equals(stored.get().getRequestHash())) {
+            log.warn("Ключ идемпотентности {} повторно использован с другим телом запроса.", value);
+            return reject(response, HttpStatus.UNPROCESSABLE_ENTITY,
+                    "Ключ идемпотентности уже использован с другим телом запроса.");
+        }
+
+        if (stored.isEmpty() || stored.get().isPending()) {
+            log.warn("Запрос с ключом идемпотентности {} уже выполняется.", value);
+            return reject(response, HttpStatus.CONFLICT, "Запрос с этим ключом идемпотентности уже выполняется.");
+        }
+
+        log.info("Повтор запроса {} с ключом идемпотентности {}, возвращён сохранённый ответ.",
+                request.getRequestURI(), value);
+        response.setStatus(stored.get().getStatus());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setHeader(REPLAYED_HEADER, "true");
+        response.getOutputStream().write(stored.get().getBody().getBytes(StandardCharsets.UTF_8));
+        return false;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        Object reservation = request.getAttribute(KEY_ATTRIBUTE);
+
+        if (reservation != null) {
+            applicationContext.getBean(IdempotencyStore.class).release((IdempotencyStore.Reservation) reservation);
+        }
+    }
+
+    private boolean reject(HttpServletResponse response, HttpStatus status, String message) throws IOException {
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.getOutputStream().write(objectMapper.writeValueAsBytes(Map.of("Incorrect data", message)));
+        return false;
+    }
+}
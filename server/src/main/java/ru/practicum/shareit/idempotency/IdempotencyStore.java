@@ -0,0 +1,165 @@
+package ru.practicum.shareit.idempotency;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Хранит ответы на запросы с ключом идемпотентности в таблице idempotency_keys до истечения срока,
+ * завершённые ответы дополнительно держит в памяти. Вместе с ответом хранится хеш тела запроса.
+ * Незавершённый запрос занимает ключ только на короткую аренду: если процесс упал, не сохранив ответ,
+ * после её окончания ключ может занять повтор.
+ */
+@Slf4j
+@Component
+public class IdempotencyStore {
+    private static final String FIND = "select status, response, request_hash from idempotency_keys " +
+            "where user_id = ? and operation = ? and idempotency_key = ? and expires_at > ? " +
+            "and (status is not null or lease_expires_at > ?)";
+    private static final String DELETE_EXPIRED_KEY = "delete from idempotency_keys " +
+            "where user_id = ? and operation = ? and idempotency_key = ? " +
+            "and (expires_at <= ? or (status is null and lease_expires_at <= ?))";
+    private static final String RESERVE = "insert into idempotency_keys " +
+            "(user_id, operation, idempotency_key, request_hash, lease_id, lease_expires_at, expires_at) " +
+            "values (?, ?, ?, ?, ?, ?, ?)";
+    private static final String COMPLETE = "update idempotency_keys set status = ?, response = ? " +
+            "where user_id = ? and operation = ? and idempotency_key = ? and status is null and lease_id = ?";
+    private static final String RELEASE = "delete from idempotency_keys " +
+            "where user_id = ? and operation = ? and idempotency_key = ? and status is null and lease_id = ?";
+    private static final String PURGE = "delete from idempotency_keys where expires_at <= ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Duration ttl;
+    private final Duration lease;
+    private final Cache<Key, StoredResponse> responses;
+
+    public IdempotencyStore(JdbcTemplate jdbcTemplate,
+                            MeterRegistry meterRegistry,
+                            @Value("${shareit.idempotency.ttl}") Duration ttl,
+                            @Value("${shareit.idempotency.lease}") Duration lease,
+                            @Value("${shareit.idempotency.cache.maximum-size}") long maximumSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.ttl = ttl;
+        this.lease = lease;
+        this.responses = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, responses, "idempotentResponses");
+    }
+
+    /**
+     * Ответ по ключу; пустой ответ без статуса означает, что запрос с этим ключом ещё выполняется.
+     */
+    public Optional<StoredResponse> find(Key key) {
+        StoredResponse cached = responses.getIfPresent(key);
+
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        Optional<StoredResponse> stored = jdbcTemplate.query(FIND, (resultSet, rowNum) -> {
+                    int status = resultSet.getInt("status");
+                    return new StoredResponse(resultSet.wasNull() ? null : status, resultSet.getString("response"),
+                            resultSet.getString("request_hash"));
+                }, key.userId, key.operation, key.value, now, now)
+                .stream()
+                .findFirst();
+        stored.filter(response -> !response.isPending()).ifPresent(response -> responses.put(key, response));
+        return stored;
+    }
+
+    /**
+     * Занимает ключ под выполняемый запрос с заданным хешем тела, в том числе ключ с истёкшей арендой;
+     * пусто, если ключ уже занят другим запросом.
+     */
+    public Optional<Reservation> reserve(Key key, String requestHash) {
+        LocalDateTime now = LocalDateTime.now();
+        Reservation reservation = new Reservation(key, requestHash, UUID.randomUUID().toString());
+
+        try {
+            jdbcTemplate.update(DELETE_EXPIRED_KEY, key.userId, key.operation, key.value, now, now);
+            jdbcTemplate.update(RESERVE, key.userId, key.operation, key.value, requestHash, reservation.leaseId,
+                    now.plus(lease), now.plus(ttl));
+            return Optional.of(reservation);
+        } catch (DuplicateKeyException e) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Сохраняет ответ, если ключ всё ещё занят этим запросом, а не перехвачен повтором после окончания аренды.
+     */
+    public void complete(Reservation reservation, int status, String response) {
+        Key key = reservation.key;
+
+        if (jdbcTemplate.update(COMPLETE, status, response, key.userId, key.operation, key.value,
+                reservation.leaseId) == 0) {
+            log.warn("Аренда ключа идемпотентности {} истекла, ответ не сохранён.", key.value);
+            return;
+        }
+
+        responses.put(key, new StoredResponse(status, response, reservation.requestHash));
+    }
+
+    /**
+     * Освобождает ключ, если запрос завершился без сохранённого ответа, чтобы клиент мог его повторить.
+     */
+    public void release(Reservation reservation) {
+        Key key = reservation.key;
+        jdbcTemplate.update(RELEASE, key.userId, key.operation, key.value, reservation.leaseId);
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.idempotency.purge-interval}")
+    public void purge() {
+        int deleted = jdbcTemplate.update(PURGE, LocalDateTime.now());
+
+        if (deleted > 0) {
+            log.info("Удалено {} просроченных ключей идемпотентности.", deleted);
+        }
+    }
+
+    @EqualsAndHashCode
+    @RequiredArgsConstructor
+    public static final class Key {
+        private final long userId;
+        private final String operation;
+        private final String value;
+    }
+
+    @RequiredArgsConstructor
+    public static final class Reservation {
+        private final Key key;
+        private final String requestHash;
+        private final String leaseId;
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    public static final class StoredResponse {
+        private final Integer status;
+        private final String body;
+        private final String requestHash;
+
+        public boolean isPending() {
+            return status == null;
+        }
+    }
+}
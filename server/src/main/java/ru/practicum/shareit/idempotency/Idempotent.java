@@ -0,0 +1,14 @@
+package ru.practicum.shareit.idempotency;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Повтор запроса с тем же заголовком Idempotency-Key получает сохранённый ответ без повторного выполнения метода.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Idempotent {
+}
@@ -0,0 +1,63 @@
+package ru.practicum.shareit.idempotency;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.context.ApplicationContext;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.http.server.ServletServerHttpResponse;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+import javax.servlet.http.HttpServletRequest;
+import java.io.UncheckedIOException;
+
+/**
+ * Сохраняет ответ метода с {@link Idempotent} под ключом, занятым в {@link IdempotencyInterceptor}.
+ */
+@RestControllerAdvice
+class IdempotentResponseAdvice implements ResponseBodyAdvice<Object> {
+    private final ApplicationContext applicationContext;
+    private final ObjectMapper objectMapper;
+
+    IdempotentResponseAdvice(ApplicationContext applicationContext, ObjectMapper objectMapper) {
+        this.applicationContext = applicationContext;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return returnType.hasMethodAnnotation(Idempotent.class);
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        if (!(request instanceof ServletServerHttpRequest) || !(response instanceof ServletServerHttpResponse)) {
+            return body;
+        }
+
+        HttpServletRequest servletRequest = ((ServletServerHttpRequest) request).getServletRequest();
+        Object reservation = servletRequest.getAttribute(IdempotencyInterceptor.KEY_ATTRIBUTE);
+
+        if (reservation == null) {
+            return body;
+        }
+
+        try {
+            applicationContext.getBean(IdempotencyStore.class).complete((IdempotencyStore.Reservation) reservation,
+                    ((ServletServerHttpResponse) response).getServletResponse().getStatus(),
+                    objectMapper.writeValueAsString(body));
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        servletRequest.removeAttribute(IdempotencyInterceptor.KEY_ATTRIBUTE);
+        return body;
+    }
+}
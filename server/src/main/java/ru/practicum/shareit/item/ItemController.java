@@ -2,12 +2,26 @@ package ru.practicum.shareit.item;
 
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import ru.practicum.shareit.booking.dto.IntervalDto;
+import ru.practicum.shareit.etag.ConditionalGet;
+import ru.practicum.shareit.etag.ETags;
+import ru.practicum.shareit.idempotency.Idempotent;
 import ru.practicum.shareit.item.comment.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemShortDto;
+import ru.practicum.shareit.item.dto.ItemSuggestionDto;
 import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.pagination.Cursor;
 
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.time.LocalDateTime;
 import java.util.Collection;
 import java.util.List;
 
@@ -23,11 +37,13 @@ public class ItemController {
         this.itemService = itemService;
     }
 
+    @Idempotent
     @PostMapping
     public ItemShortDto create(@RequestHeader(xSharerUserId) Long userId, @RequestBody ItemShortDto itemShortDto) {
         return itemService.create(userId, itemShortDto);
     }
 
+    @ConditionalGet(ItemService.class)
     @GetMapping("/{id}")
     public ItemDto getById(@PathVariable Long id, @RequestHeader(xSharerUserId) Long userId) {
         return itemService.getById(id, userId);
@@ -40,6 +56,30 @@ public class ItemController {
         return itemService.getAllItemsByUser(userId, from, size);
     }
 
+    @GetMapping(params = {"sort", "!cursor"})
+    public List<ItemDto> getAllItemsByUser(@RequestHeader(xSharerUserId) Long userId,
+                                           @RequestParam ItemSort sort,
+                                           @RequestParam(defaultValue = "0") Integer from,
+                                           @RequestParam(defaultValue = "10") Integer size) {
+        return itemService.getAllItemsByUser(userId, sort, from, size);
+    }
+
+    @GetMapping(params = "cursor")
+    public ResponseEntity<List<ItemDto>> getAllItemsByUserAfter(@RequestHeader(xSharerUserId) Long userId,
+                                                                @RequestParam(defaultValue = "") String cursor,
+                                                                @RequestParam(defaultValue = "10") Integer size) {
+        return Cursor.toResponse(itemService.getAllItemsByUserAfter(userId, Cursor.decode(cursor), size), size,
+                itemDto -> Cursor.of(itemDto.getId()));
+    }
+
+    @PostMapping(path = "/batch", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public void importItems(@RequestHeader(xSharerUserId) Long userId,
+                            HttpServletRequest request,
+                            HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        itemService.importItems(userId, request.getInputStream(), response.getOutputStream());
+    }
+
     @PatchMapping("/{id}")
     public ItemShortDto update(@RequestHeader(xSharerUserId) Long userId,
                                @RequestBody ItemShortDto itemShortDto,
@@ -48,6 +88,15 @@ public class ItemController {
         return itemService.update(userId, itemShortDto, itemId);
     }
 
+    @PatchMapping(path = "/{id}", headers = HttpHeaders.IF_MATCH)
+    public ItemShortDto update(@RequestHeader(xSharerUserId) Long userId,
+                               @RequestHeader(HttpHeaders.IF_MATCH) String ifMatch,
+                               @RequestBody ItemShortDto itemShortDto,
+                               @PathVariable("id") Long itemId
+    ) {
+        return itemService.update(userId, itemShortDto, itemId, ETags.parseVersion(ifMatch));
+    }
+
     @DeleteMapping("/{id}")
     public void delete(@PathVariable("id") Long itemId) {
         itemService.delete(itemId);
@@ -60,6 +109,54 @@ public class ItemController {
         return itemService.searchItems(text, from, size);
     }
 
+    @GetMapping(path = "/search", params = {"sort", "!start", "!cursor"})
+    public Collection<ItemShortDto> search(@RequestParam(value = "text") String text,
+                                           @RequestParam ItemSort sort,
+                                           @RequestParam(defaultValue = "0") Integer from,
+                                           @RequestParam(defaultValue = "10") Integer size) {
+        return itemService.searchItems(text, sort, from, size);
+    }
+
+    @GetMapping(path = "/search", params = {"start", "end"})
+    public List<ItemShortDto> searchAvailable(@RequestParam(value = "text") String text,
+                                              @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
+                                              @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end,
+                                              @RequestParam(defaultValue = "0") Integer from,
+                                              @RequestParam(defaultValue = "10") Integer size) {
+        return itemService.searchAvailableItems(text, start, end, from, size);
+    }
+
+    @GetMapping(path = "/search", params = "cursor")
+    public ResponseEntity<List<ItemShortDto>> searchAfter(@RequestParam(value = "text") String text,
+                                                          @RequestParam(defaultValue = "") String cursor,
+                                                          @RequestParam(defaultValue = "10") Integer size) {
+        return Cursor.toResponse(itemService.searchItemsAfter(text, Cursor.decode(cursor), size), size,
+                itemShortDto -> Cursor.of(itemShortDto.getId()));
+    }
+
+    @GetMapping("/{id}/availability")
+    public List<IntervalDto> getAvailability(@PathVariable Long id,
+                                             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        return itemService.getAvailability(id, from, to);
+    }
+
+    @GetMapping("/{id}/comments")
+    public ResponseEntity<List<CommentDto>> getComments(@RequestHeader(xSharerUserId) Long userId,
+                                                        @PathVariable Long id,
+                                                        @RequestParam(defaultValue = "") String cursor,
+                                                        @RequestParam(defaultValue = "10") Integer size) {
+        return Cursor.toResponse(itemService.getComments(id, userId, Cursor.decode(cursor), size), size,
+                commentDto -> Cursor.of(commentDto.getCreated(), commentDto.getId()));
+    }
+
+    @GetMapping("/suggest")
+    public List<ItemSuggestionDto> suggest(@RequestParam String prefix,
+                                           @RequestParam(defaultValue = "10") Integer size) {
+        return itemService.suggest(prefix, size);
+    }
+
+    @Idempotent
     @PostMapping("/{id}/comment")
     public CommentDto addComment(@RequestHeader(xSharerUserId) Long userId,
                                  @RequestBody CommentDto commentDto,
@@ -3,6 +3,7 @@ package ru.practicum.shareit.item;
 import org.springframework.stereotype.Component;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemShortDto;
+import ru.practicum.shareit.item.dto.ItemShortView;
 import ru.practicum.shareit.item.model.Item;
 
 @Component
@@ -19,6 +20,11 @@ public class ItemMapper {
                 .build();
     }
 
+    public ItemShortDto toItemShortDto(ItemShortView itemShortView) {
+        return new ItemShortDto(itemShortView.getId(), itemShortView.getName(), itemShortView.getDescription(),
+                itemShortView.getAvailable(), itemShortView.getRequestId());
+    }
+
     public Item toItem(ItemShortDto itemShortDto) {
         return Item.builder()
                 .id(itemShortDto.getId())
@@ -37,6 +43,7 @@ public class ItemMapper {
                 .requestId(item.getRequest() == null
                         ? null
                         : item.getRequest().getId())
+                .commentsCount(item.getCommentsCount())
                 .build();
     }
 
@@ -2,20 +2,118 @@ package ru.practicum.shareit.item;
 
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemShortDto;
+import ru.practicum.shareit.item.dto.ItemShortView;
+import ru.practicum.shareit.item.dto.ItemVersion;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.search.ItemPopularity;
 
+import javax.persistence.LockModeType;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface ItemRepository extends JpaRepository<Item, Long> {
-    List<Item> findAllByOwnerId(Long ownerId, Pageable pageable);
+    @Query("select new ru.practicum.shareit.item.dto.ItemDto(i.id, i.name, i.description, i.available, r.id, " +
+            "i.commentsCount) from Item as i left join i.request as r where i.owner.id = ?1 order by i.id")
+    List<ItemDto> findAllByOwnerIdOrderById(Long ownerId, Pageable pageable);
 
-    @Query("select i from Item as i " +
-            "where upper(i.name) like upper(concat('%', ?1, '%')) " +
-            "or upper(i.description) like upper(concat('%', ?1, '%')) and i.available = true")
-    List<Item> searchItems(String text, Pageable pageable);
+    @Query("select new ru.practicum.shareit.item.dto.ItemDto(i.id, i.name, i.description, i.available, r.id, " +
+            "i.commentsCount) from Item as i left join i.request as r where i.owner.id = ?1 and i.id > ?2 order by i.id")
+    List<ItemDto> findAllByOwnerIdAndIdGreaterThanOrderById(Long ownerId, Long id, Pageable pageable);
 
-    List<Item> findAllByRequestId(Long requestId);
+    @Query("select new ru.practicum.shareit.item.dto.ItemDto(i.id, i.name, i.description, i.available, r.id, " +
+            "i.commentsCount) from Item as i left join i.request as r left join ItemStats as s on s.itemId = i.id " +
+            "where i.owner.id = ?1 order by coalesce(s.score, 0) desc, i.id")
+    List<ItemDto> findAllByOwnerIdOrderByPopularity(Long ownerId, Pageable pageable);
+
+    @Query("select new ru.practicum.shareit.item.dto.ItemShortDto(i.id, i.name, i.description, i.available, r.id) " +
+            "from Item as i left join i.request as r " +
+            "where (upper(i.name) like upper(concat('%', ?1, '%')) " +
+            "or upper(i.description) like upper(concat('%', ?1, '%'))) and i.available = true " +
+            "order by case when upper(i.name) like upper(concat('%', ?1, '%')) then 0 else 1 end, i.id")
+    List<ItemShortDto> searchItems(String text, Pageable pageable);
+
+    @Query(value = "select id, name, description, is_available as \"available\", request_id as \"requestId\" " +
+            "from items where is_available = true " +
+            "and search_vector @@ to_tsquery('simple', ?1) " +
+            "order by ts_rank(search_vector, to_tsquery('simple', ?1)) desc, id", nativeQuery = true)
+    List<ItemShortView> searchItemsFullText(String tsQuery, Pageable pageable);
+
+    @Query("select new ru.practicum.shareit.item.dto.ItemShortDto(i.id, i.name, i.description, i.available, r.id) " +
+            "from Item as i left join i.request as r left join ItemStats as s on s.itemId = i.id " +
+            "where (upper(i.name) like upper(concat('%', ?1, '%')) " +
+            "or upper(i.description) like upper(concat('%', ?1, '%'))) and i.available = true " +
+            "order by coalesce(s.score, 0) desc, i.id")
+    List<ItemShortDto> searchItemsByPopularity(String text, Pageable pageable);
+
+    @Query(value = "select i.id, i.name, i.description, i.is_available as \"available\", " +
+            "i.request_id as \"requestId\" from items as i left join item_stats as s on s.item_id = i.id " +
+            "where i.is_available = true and i.search_vector @@ to_tsquery('simple', ?1) " +
+            "order by coalesce(s.score, 0) desc, i.id", nativeQuery = true)
+    List<ItemShortView> searchItemsFullTextByPopularity(String tsQuery, Pageable pageable);
+
+    @Query("select new ru.practicum.shareit.item.dto.ItemShortDto(i.id, i.name, i.description, i.available, r.id) " +
+            "from Item as i left join i.request as r " +
+            "where (upper(i.name) like upper(concat('%', ?1, '%')) " +
+            "or upper(i.description) like upper(concat('%', ?1, '%'))) and i.available = true " +
+            "and not exists (select b.id from Booking as b where b.item = i " +
+            "and b.status = ru.practicum.shareit.booking.Status.APPROVED and b.start < ?3 and b.end > ?2) " +
+            "order by case when upper(i.name) like upper(concat('%', ?1, '%')) then 0 else 1 end, i.id")
+    List<ItemShortDto> searchAvailableItems(String text, LocalDateTime start, LocalDateTime end, Pageable pageable);
+
+    @Query(value = "select i.id, i.name, i.description, i.is_available as \"available\", " +
+            "i.request_id as \"requestId\" from items as i where i.is_available = true " +
+            "and i.search_vector @@ to_tsquery('simple', ?1) " +
+            "and not exists (select 1 from bookings as b where b.item_id = i.id " +
+            "and b.status = 'APPROVED' and b.start_date < ?3 and b.end_date > ?2) " +
+            "order by ts_rank(i.search_vector, to_tsquery('simple', ?1)) desc, i.id", nativeQuery = true)
+    List<ItemShortView> searchAvailableItemsFullText(String tsQuery, LocalDateTime start, LocalDateTime end,
+                                                     Pageable pageable);
+
+    @Query("select new ru.practicum.shareit.item.dto.ItemShortDto(i.id, i.name, i.description, i.available, r.id) " +
+            "from Item as i left join i.request as r " +
+            "where (upper(i.name) like upper(concat('%', ?1, '%')) " +
+            "or upper(i.description) like upper(concat('%', ?1, '%'))) and i.available = true and i.id > ?2 " +
+            "order by i.id")
+    List<ItemShortDto> searchItemsAfter(String text, Long afterId, Pageable pageable);
+
+    @Query(value = "select id, name, description, is_available as \"available\", request_id as \"requestId\" " +
+            "from items where is_available = true " +
+            "and search_vector @@ to_tsquery('simple', ?1) and id > ?2 order by id", nativeQuery = true)
+    List<ItemShortView> searchItemsFullTextAfter(String tsQuery, Long afterId, Pageable pageable);
+
+    @Query("select new ru.practicum.shareit.item.dto.ItemDto(i.id, i.name, i.description, i.available, r.id, " +
+            "i.commentsCount) from Item as i join i.request as r where r.id in ?1 order by i.id")
+    List<ItemDto> findAllByRequestIdIn(Collection<Long> requestIds);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select i from Item as i where i.id = ?1")
+    Optional<Item> findByIdForUpdate(Long itemId);
+
+    @Query("select max(i.id) from Item as i")
+    Long findMaxId();
+
+    @Query("select new ru.practicum.shareit.item.dto.ItemShortDto(i.id, i.name, i.description, i.available, r.id) " +
+            "from Item as i left join i.request as r " +
+            "where i.id between ?1 and ?2 and i.available = true")
+    List<ItemShortDto> findAllAvailableByIdBetween(Long fromId, Long toId);
+
+    @Query("select i.id as id, i.name as name, i.commentsCount as popularity from Item as i " +
+            "where i.id between ?1 and ?2 and i.available = true")
+    List<ItemPopularity> findAllPopularityByIdBetween(Long fromId, Long toId);
+
+    @Modifying
+    @Query("update versioned Item as i set i.commentsCount = i.commentsCount + 1 where i.id = ?1")
+    void incrementCommentsCount(Long itemId);
+
+    @Query("select i.version as version, i.owner.id as ownerId from Item as i where i.id = ?1")
+    Optional<ItemVersion> findVersionById(Long itemId);
 }
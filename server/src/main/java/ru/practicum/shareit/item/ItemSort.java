@@ -0,0 +1,8 @@
+package ru.practicum.shareit.item;
+
+public enum ItemSort {
+    // Порядок по умолчанию
+    DEFAULT,
+    // По популярности
+    POPULARITY
+}
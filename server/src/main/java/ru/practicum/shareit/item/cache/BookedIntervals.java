@@ -0,0 +1,73 @@
+package ru.practicum.shareit.item.cache;
+
+import ru.practicum.shareit.booking.dto.IntervalDto;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+public class BookedIntervals {
+    private final LocalDateTime[] starts;
+    private final LocalDateTime[] ends;
+
+    private BookedIntervals(LocalDateTime[] starts, LocalDateTime[] ends) {
+        this.starts = starts;
+        this.ends = ends;
+    }
+
+    public static BookedIntervals of(List<IntervalDto> bookingsOrderedByStart) {
+        List<LocalDateTime> starts = new ArrayList<>();
+        List<LocalDateTime> ends = new ArrayList<>();
+
+        for (IntervalDto booking : bookingsOrderedByStart) {
+            int last = ends.size() - 1;
+
+            if (last >= 0 && !booking.getStart().isAfter(ends.get(last))) {
+                if (booking.getEnd().isAfter(ends.get(last))) {
+                    ends.set(last, booking.getEnd());
+                }
+            } else {
+                starts.add(booking.getStart());
+                ends.add(booking.getEnd());
+            }
+        }
+
+        return new BookedIntervals(starts.toArray(new LocalDateTime[0]), ends.toArray(new LocalDateTime[0]));
+    }
+
+    public List<IntervalDto> freeIntervals(LocalDateTime from, LocalDateTime to) {
+        List<IntervalDto> freeIntervals = new ArrayList<>();
+        LocalDateTime freeFrom = from;
+
+        for (int i = firstEndingAfter(from); i < starts.length && starts[i].isBefore(to); i++) {
+            if (starts[i].isAfter(freeFrom)) {
+                freeIntervals.add(new IntervalDto(freeFrom, starts[i]));
+            }
+
+            freeFrom = ends[i];
+        }
+
+        if (freeFrom.isBefore(to)) {
+            freeIntervals.add(new IntervalDto(freeFrom, to));
+        }
+
+        return freeIntervals;
+    }
+
+    private int firstEndingAfter(LocalDateTime time) {
+        int low = 0;
+        int high = ends.length;
+
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+
+            if (ends[middle].isAfter(time)) {
+                high = middle;
+            } else {
+                low = middle + 1;
+            }
+        }
+
+        return low;
+    }
+}
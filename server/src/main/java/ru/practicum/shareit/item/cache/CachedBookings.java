@@ -0,0 +1,18 @@
+package ru.practicum.shareit.item.cache;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import ru.practicum.shareit.booking.dto.BookingShortDto;
+
+import java.time.LocalDateTime;
+
+@Getter
+@RequiredArgsConstructor
+public class CachedBookings {
+    private final BookingShortDto lastBooking;
+    private final BookingShortDto nextBooking;
+
+    public boolean isExpired(LocalDateTime now) {
+        return nextBooking != null && !now.isBefore(nextBooking.getStart());
+    }
+}
@@ -0,0 +1,12 @@
+package ru.practicum.shareit.item.cache;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import ru.practicum.shareit.item.dto.ItemDto;
+
+@Getter
+@RequiredArgsConstructor
+public class CachedItem {
+    private final ItemDto item;
+    private final Long ownerId;
+}
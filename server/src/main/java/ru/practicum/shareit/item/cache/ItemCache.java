@@ -0,0 +1,90 @@
+package ru.practicum.shareit.item.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.practicum.shareit.booking.Status;
+import ru.practicum.shareit.booking.event.BookingChangedEvent;
+import ru.practicum.shareit.item.event.CommentAddedEvent;
+import ru.practicum.shareit.item.event.ItemChangedEvent;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.function.Function;
+
+@Component
+public class ItemCache {
+    private final Cache<Long, CachedItem> items;
+    private final Cache<Long, CachedBookings> bookings;
+    private final Cache<Long, BookedIntervals> bookedIntervals;
+
+    public ItemCache(MeterRegistry meterRegistry,
+                     @Value("${shareit.cache.items.maximum-size}") long maximumSize,
+                     @Value("${shareit.cache.items.expire-after-write}") Duration expireAfterWrite) {
+        this.items = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+        this.bookings = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+        this.bookedIntervals = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, items, "items");
+        CaffeineCacheMetrics.monitor(meterRegistry, bookings, "itemBookings");
+        CaffeineCacheMetrics.monitor(meterRegistry, bookedIntervals, "itemAvailability");
+    }
+
+    public CachedItem getItem(Long itemId, Function<Long, CachedItem> loader) {
+        return items.get(itemId, loader);
+    }
+
+    public CachedBookings getBookings(Long itemId, Function<Long, CachedBookings> loader) {
+        CachedBookings cachedBookings = bookings.get(itemId, loader);
+
+        if (cachedBookings.isExpired(LocalDateTime.now())) {
+            cachedBookings = loader.apply(itemId);
+            bookings.put(itemId, cachedBookings);
+        }
+
+        return cachedBookings;
+    }
+
+    public BookedIntervals getBookedIntervals(Long itemId, Function<Long, BookedIntervals> loader) {
+        return bookedIntervals.get(itemId, loader);
+    }
+
+    @TransactionalEventListener
+    public void onItemChanged(ItemChangedEvent event) {
+        items.invalidate(event.getItemId());
+
+        if (event.isDeleted()) {
+            bookings.invalidate(event.getItemId());
+            bookedIntervals.invalidate(event.getItemId());
+        }
+    }
+
+    @TransactionalEventListener
+    public void onCommentAdded(CommentAddedEvent event) {
+        items.invalidate(event.getItemId());
+    }
+
+    @TransactionalEventListener
+    public void onBookingChanged(BookingChangedEvent event) {
+        bookedIntervals.invalidate(event.getItemId());
+
+        if (event.getStatus() == Status.APPROVED) {
+            bookings.invalidate(event.getItemId());
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package ru.practicum.shareit.item.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.EqualsAndHashCode;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.practicum.shareit.item.dto.ItemShortDto;
+import ru.practicum.shareit.item.event.ItemChangedEvent;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Component
+public class ItemSearchCache {
+    private final Cache<Key, List<ItemShortDto>> pages;
+    private final Cache<String, QueryStats> queries;
+    private final AtomicLong generation = new AtomicLong();
+
+    public ItemSearchCache(MeterRegistry meterRegistry,
+                           @Value("${shareit.cache.search.maximum-size}") long maximumSize,
+                           @Value("${shareit.cache.search.tracked-queries}") long trackedQueries) {
+        this.pages = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .recordStats()
+                .build();
+        this.queries = Caffeine.newBuilder()
+                .maximumSize(trackedQueries)
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, pages, "itemSearch");
+    }
+
+    /**
+     * Страница результатов по нормализованному запросу; поиск вызывается с тем же нормализованным текстом,
+     * который служит ключом кэша.
+     */
+    public List<ItemShortDto> get(String text, int from, int size, Function<String, List<ItemShortDto>> search) {
+        String query = normalize(text);
+        Key key = new Key(generation.get(), query, from, size);
+        QueryStats stats = queries.get(query, QueryStats::new);
+        boolean[] loaded = new boolean[1];
+
+        List<ItemShortDto> page = pages.get(key, k -> {
+            loaded[0] = true;
+            return List.copyOf(search.apply(query));
+        });
+
+        if (loaded[0]) {
+            stats.misses.increment();
+        } else {
+            stats.hits.increment();
+        }
+
+        return page;
+    }
+
+    public List<QueryStats> hotQueries(int limit) {
+        return queries.asMap().values()
+                .stream()
+                .sorted(Comparator.comparingLong(QueryStats::getHits).reversed())
+                .limit(limit)
+                .collect(Collectors.toList());
+    }
+
+    @TransactionalEventListener
+    public void onItemChanged(ItemChangedEvent event) {
+        generation.incrementAndGet();
+        pages.invalidateAll();
+    }
+
+    static String normalize(String text) {
+        return String.join(" ", text.trim().toLowerCase().split("\\s+"));
+    }
+
+    @EqualsAndHashCode
+    @RequiredArgsConstructor
+    private static final class Key {
+        private final long generation;
+        private final String query;
+        private final int from;
+        private final int size;
+    }
+
+    public static final class QueryStats {
+        private final String query;
+        private final LongAdder hits = new LongAdder();
+        private final LongAdder misses = new LongAdder();
+
+        private QueryStats(String query) {
+            this.query = query;
+        }
+
+        public String getQuery() {
+            return query;
+        }
+
+        public long getHits() {
+            return hits.sum();
+        }
+
+        public long getMisses() {
+            return misses.sum();
+        }
+    }
+}
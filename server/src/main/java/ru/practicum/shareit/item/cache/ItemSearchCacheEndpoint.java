@@ -0,0 +1,24 @@
+package ru.practicum.shareit.item.cache;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+@Component
+@Endpoint(id = "searchqueries")
+public class ItemSearchCacheEndpoint {
+    private static final int HOT_QUERIES_LIMIT = 100;
+
+    private final ItemSearchCache itemSearchCache;
+
+    public ItemSearchCacheEndpoint(ItemSearchCache itemSearchCache) {
+        this.itemSearchCache = itemSearchCache;
+    }
+
+    @ReadOperation
+    public List<ItemSearchCache.QueryStats> hotQueries() {
+        return itemSearchCache.hotQueries(HOT_QUERIES_LIMIT);
+    }
+}
@@ -1,12 +1,29 @@
 package ru.practicum.shareit.item.comment;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 import ru.practicum.shareit.item.comment.model.Comment;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface CommentRepository extends JpaRepository<Comment, Long> {
     List<Comment> findAllByItemId(Long itemId);
+
+    List<Comment> findAllByItemIdOrderByCreatedDescIdDesc(Long itemId, Pageable pageable);
+
+    @Query("select c from Comment as c " +
+            "where c.item.id = ?1 and (c.created < ?2 or (c.created = ?2 and c.id < ?3)) " +
+            "order by c.created desc, c.id desc")
+    List<Comment> findAllByItemIdBefore(Long itemId, LocalDateTime created, Long id, Pageable pageable);
+
+    @Query(value = "select id, text, item_id, author_id, created_date from (" +
+            "select c.*, row_number() over (partition by c.item_id order by c.created_date desc, c.id desc) as rn " +
+            "from comments as c where c.item_id in (?1)) as latest " +
+            "where rn <= ?2 order by created_date desc, id desc", nativeQuery = true)
+    List<Comment> findLatestByItemIdIn(Collection<Long> itemIds, int limit);
 }
@@ -0,0 +1,7 @@
+package ru.practicum.shareit.item.dto;
+
+public interface ItemVersion {
+    Long getVersion();
+
+    Long getOwnerId();
+}
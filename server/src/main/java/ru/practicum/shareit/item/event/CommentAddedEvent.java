@@ -0,0 +1,12 @@
+package ru.practicum.shareit.item.event;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import ru.practicum.shareit.item.comment.dto.CommentDto;
+
+@Getter
+@RequiredArgsConstructor
+public class CommentAddedEvent {
+    private final Long itemId;
+    private final CommentDto comment;
+}
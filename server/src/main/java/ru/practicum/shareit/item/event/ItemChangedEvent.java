@@ -0,0 +1,21 @@
+package ru.practicum.shareit.item.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import ru.practicum.shareit.item.dto.ItemShortDto;
+
+@Getter
+@AllArgsConstructor
+public class ItemChangedEvent {
+    private final Long itemId;
+    private final ItemShortDto item;
+    private final long commentsCount;
+
+    public ItemChangedEvent(Long itemId, ItemShortDto item) {
+        this(itemId, item, 0);
+    }
+
+    public boolean isDeleted() {
+        return item == null;
+    }
+}
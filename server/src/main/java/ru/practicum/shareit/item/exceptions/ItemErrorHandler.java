@@ -1,6 +1,7 @@
 package ru.practicum.shareit.item.exceptions;
 
 import org.springframework.http.HttpStatus;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
@@ -21,4 +22,16 @@ public class ItemErrorHandler {
     public Map<String, String> handleItemNotFoundException(final ItemNotFoundException e) {
         return Map.of("Incorrect data", e.getMessage());
     }
+
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.PRECONDITION_FAILED)
+    public Map<String, String> handlePreconditionFailedException(final PreconditionFailedException e) {
+        return Map.of("Incorrect data", e.getMessage());
+    }
+
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public Map<String, String> handleOptimisticLockingFailureException(final ObjectOptimisticLockingFailureException e) {
+        return Map.of("Incorrect data", "Данные были изменены другим запросом, повторите попытку.");
+    }
 }
@@ -0,0 +1,7 @@
+package ru.practicum.shareit.item.exceptions;
+
+public class PreconditionFailedException extends RuntimeException {
+    public PreconditionFailedException(String message) {
+        super(message);
+    }
+}
@@ -29,6 +29,11 @@ public class Item {
     private User owner;
     @Column(name = "is_available", nullable = false)
     private Boolean available;
+    @Column(name = "comments_count", insertable = false, updatable = false)
+    private Long commentsCount;
+    @Version
+    @Column(name = "version", nullable = false)
+    private long version;
     @ToString.Exclude
     @OneToOne
     @JoinColumn(name = "request_id", referencedColumnName = "id")
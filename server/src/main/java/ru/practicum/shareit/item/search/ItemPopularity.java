@@ -0,0 +1,9 @@
+package ru.practicum.shareit.item.search;
+
+public interface ItemPopularity {
+    Long getId();
+
+    String getName();
+
+    Long getPopularity();
+}
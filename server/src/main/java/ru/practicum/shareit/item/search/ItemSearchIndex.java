@@ -0,0 +1,100 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.item.SearchMode;
+import ru.practicum.shareit.item.dto.ItemShortDto;
+import ru.practicum.shareit.item.event.ItemChangedEvent;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+@Slf4j
+@Component
+public class ItemSearchIndex {
+    private static final int CHUNK_SIZE = 10_000;
+
+    private final ItemRepository itemRepository;
+    private final SearchMode searchMode;
+    private final TrigramIndex index = new TrigramIndex();
+    private final List<ItemChangedEvent> pendingEvents = new ArrayList<>();
+    private volatile boolean ready;
+
+    public ItemSearchIndex(ItemRepository itemRepository,
+                           @Value("${shareit.search.mode}") SearchMode searchMode) {
+        this.itemRepository = itemRepository;
+        this.searchMode = searchMode;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void build() {
+        if (searchMode != SearchMode.MEMORY) {
+            return;
+        }
+
+        long startTime = System.currentTimeMillis();
+        Long maxId = itemRepository.findMaxId();
+        List<ItemShortDto> items = maxId == null
+                ? new ArrayList<>()
+                : LongStream.rangeClosed(0, maxId / CHUNK_SIZE)
+                .parallel()
+                .mapToObj(chunk -> itemRepository.findAllAvailableByIdBetween(chunk * CHUNK_SIZE + 1,
+                        (chunk + 1) * CHUNK_SIZE))
+                .flatMap(List::stream)
+                .collect(Collectors.toList());
+
+        synchronized (this) {
+            index.putAll(items);
+            pendingEvents.forEach(this::apply);
+            pendingEvents.clear();
+            ready = true;
+        }
+
+        log.info("Поисковый индекс построен: {} вещей за {} мс.", index.size(), System.currentTimeMillis() - startTime);
+    }
+
+    @TransactionalEventListener
+    public void onItemChanged(ItemChangedEvent event) {
+        if (searchMode != SearchMode.MEMORY) {
+            return;
+        }
+
+        synchronized (this) {
+            if (ready) {
+                apply(event);
+            } else {
+                pendingEvents.add(event);
+            }
+        }
+    }
+
+    /**
+     * Может ли индекс ответить на запрос: он построен и запрос не короче триграммы.
+     */
+    public boolean canSearch(String text) {
+        return ready && TrigramIndex.supports(text);
+    }
+
+    public List<ItemShortDto> search(String text, int from, int size) {
+        return index.search(text, from, size);
+    }
+
+    public List<ItemShortDto> searchAfter(String text, long afterId, int size) {
+        return index.searchAfter(text, afterId, size);
+    }
+
+    private void apply(ItemChangedEvent event) {
+        if (event.isDeleted() || !event.getItem().getAvailable()) {
+            index.remove(event.getItemId());
+        } else {
+            index.put(event.getItem());
+        }
+    }
+}
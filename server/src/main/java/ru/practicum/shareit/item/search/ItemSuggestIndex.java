@@ -0,0 +1,87 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.item.dto.ItemSuggestionDto;
+import ru.practicum.shareit.item.event.CommentAddedEvent;
+import ru.practicum.shareit.item.event.ItemChangedEvent;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+@Slf4j
+@Component
+public class ItemSuggestIndex {
+    private static final int CHUNK_SIZE = 10_000;
+
+    private final ItemRepository itemRepository;
+    private final PrefixTrie trie;
+    private final List<Runnable> pendingUpdates = new ArrayList<>();
+    private volatile boolean ready;
+
+    public ItemSuggestIndex(ItemRepository itemRepository,
+                            @Value("${shareit.suggest.top-k}") int topK) {
+        this.itemRepository = itemRepository;
+        this.trie = new PrefixTrie(topK);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void build() {
+        long startTime = System.currentTimeMillis();
+        Long maxId = itemRepository.findMaxId();
+        List<ItemPopularity> items = maxId == null
+                ? new ArrayList<>()
+                : LongStream.rangeClosed(0, maxId / CHUNK_SIZE)
+                .parallel()
+                .mapToObj(chunk -> itemRepository.findAllPopularityByIdBetween(chunk * CHUNK_SIZE + 1,
+                        (chunk + 1) * CHUNK_SIZE))
+                .flatMap(List::stream)
+                .collect(Collectors.toList());
+
+        synchronized (this) {
+            trie.putAll(items);
+            pendingUpdates.forEach(Runnable::run);
+            pendingUpdates.clear();
+            ready = true;
+        }
+
+        log.info("Индекс подсказок построен: {} вещей за {} мс.", trie.size(), System.currentTimeMillis() - startTime);
+    }
+
+    @TransactionalEventListener
+    public void onItemChanged(ItemChangedEvent event) {
+        if (event.isDeleted() || !event.getItem().getAvailable()) {
+            apply(() -> trie.remove(event.getItemId()));
+        } else {
+            apply(() -> trie.rename(event.getItemId(), event.getItem().getName(), event.getCommentsCount()));
+        }
+    }
+
+    @TransactionalEventListener
+    public void onCommentAdded(CommentAddedEvent event) {
+        apply(() -> trie.addPopularity(event.getItemId(), 1));
+    }
+
+    public List<ItemSuggestionDto> suggest(String prefix, int size) {
+        if (!ready) {
+            return new ArrayList<>();
+        }
+
+        return trie.suggest(prefix, size);
+    }
+
+    private synchronized void apply(Runnable update) {
+        if (ready) {
+            update.run();
+        } else {
+            pendingUpdates.add(update);
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package ru.practicum.shareit.item.search;
+
+import java.util.function.LongFunction;
+
+/**
+ * Хеш-таблица с ключами long без упаковки: открытая адресация с линейным пробированием.
+ */
+final class LongObjectMap<V> {
+    private static final int MIN_CAPACITY = 16;
+
+    private long[] keys = new long[MIN_CAPACITY];
+    private Object[] values = new Object[MIN_CAPACITY];
+    private int size;
+
+    int size() {
+        return size;
+    }
+
+    @SuppressWarnings("unchecked")
+    V get(long key) {
+        for (int i = index(key, keys.length); values[i] != null; i = next(i)) {
+            if (keys[i] == key) {
+                return (V) values[i];
+            }
+        }
+
+        return null;
+    }
+
+    @SuppressWarnings("unchecked")
+    V put(long key, V value) {
+        int i = index(key, keys.length);
+
+        for (; values[i] != null; i = next(i)) {
+            if (keys[i] == key) {
+                V oldValue = (V) values[i];
+                values[i] = value;
+                return oldValue;
+            }
+        }
+
+        keys[i] = key;
+        values[i] = value;
+
+        if (++size * 2 > keys.length) {
+            resize(keys.length * 2);
+        }
+
+        return null;
+    }
+
+    V computeIfAbsent(long key, LongFunction<V> mapping) {
+        V value = get(key);
+
+        if (value == null) {
+            value = mapping.apply(key);
+            put(key, value);
+        }
+
+        return value;
+    }
+
+    @SuppressWarnings("unchecked")
+    V remove(long key) {
+        int i = index(key, keys.length);
+
+        for (; values[i] != null; i = next(i)) {
+            if (keys[i] == key) {
+                V oldValue = (V) values[i];
+                shiftBack(i);
+                size--;
+                return oldValue;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Освобождает ячейку, сдвигая назад следующие за ней элементы цепочки, чтобы поиск не прерывался на пустом месте.
+     */
+    private void shiftBack(int gap) {
+        int i = next(gap);
+
+        while (values[i] != null) {
+            int home = index(keys[i], keys.length);
+
+            if (((i - home) & (keys.length - 1)) >= ((i - gap) & (keys.length - 1))) {
+                keys[gap] = keys[i];
+                values[gap] = values[i];
+                gap = i;
+            }
+
+            i = next(i);
+        }
+
+        values[gap] = null;
+    }
+
+    private void resize(int capacity) {
+        long[] oldKeys = keys;
+        Object[] oldValues = values;
+        keys = new long[capacity];
+        values = new Object[capacity];
+
+        for (int j = 0; j < oldKeys.length; j++) {
+            if (oldValues[j] != null) {
+                int i = index(oldKeys[j], capacity);
+
+                while (values[i] != null) {
+                    i = (i + 1) & (capacity - 1);
+                }
+
+                keys[i] = oldKeys[j];
+                values[i] = oldValues[j];
+            }
+        }
+    }
+
+    private int next(int i) {
+        return (i + 1) & (keys.length - 1);
+    }
+
+    private static int index(long key, int capacity) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & (capacity - 1);
+    }
+}
@@ -0,0 +1,314 @@
+package ru.practicum.shareit.item.search;
+
+import ru.practicum.shareit.item.dto.ItemSuggestionDto;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+class PrefixTrie {
+    private static final int MAX_KEY_LENGTH = 32;
+    private static final int MAX_KEYS = 4;
+    private static final Comparator<Entry> BY_POPULARITY = Comparator.comparingLong((Entry entry) -> entry.popularity)
+            .reversed()
+            .thenComparing(entry -> entry.name)
+            .thenComparingLong(entry -> entry.id);
+
+    private final int topK;
+    private final Node root = new Node();
+    private final Map<Long, Entry> entries = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    PrefixTrie(int topK) {
+        this.topK = topK;
+    }
+
+    void put(Long id, String name, long popularity) {
+        lock.writeLock().lock();
+        try {
+            Entry entry = new Entry(id, name, popularity);
+            Entry oldEntry = entries.put(id, entry);
+
+            if (oldEntry != null) {
+                detach(oldEntry);
+            }
+
+            attach(entry);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void putAll(List<ItemPopularity> items) {
+        lock.writeLock().lock();
+        try {
+            for (ItemPopularity item : items) {
+                Entry entry = new Entry(item.getId(), item.getName(), item.getPopularity());
+                Entry oldEntry = entries.put(item.getId(), entry);
+
+                if (oldEntry != null) {
+                    detach(oldEntry);
+                }
+
+                attach(entry);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Обновляет название вещи; популярность берётся из индекса, а для вещи, которой в индексе нет, — из аргумента.
+     */
+    void rename(Long id, String name, long popularity) {
+        lock.writeLock().lock();
+        try {
+            Entry oldEntry = entries.get(id);
+            Entry entry = new Entry(id, name, oldEntry == null ? popularity : oldEntry.popularity);
+
+            if (oldEntry != null) {
+                if (oldEntry.name.equals(name)) {
+                    return;
+                }
+
+                detach(oldEntry);
+            }
+
+            entries.put(id, entry);
+            attach(entry);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void addPopularity(Long id, long delta) {
+        lock.writeLock().lock();
+        try {
+            Entry oldEntry = entries.get(id);
+
+            if (oldEntry == null) {
+                return;
+            }
+
+            Entry entry = new Entry(id, oldEntry.name, oldEntry.popularity + delta);
+            entries.put(id, entry);
+            detach(oldEntry);
+            attach(entry);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void remove(Long id) {
+        lock.writeLock().lock();
+        try {
+            Entry oldEntry = entries.remove(id);
+
+            if (oldEntry != null) {
+                detach(oldEntry);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    int size() {
+        lock.readLock().lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    List<ItemSuggestionDto> suggest(String prefix, int size) {
+        String key = normalize(prefix);
+
+        if (key.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        lock.readLock().lock();
+        try {
+            Node node = root;
+
+            for (int i = 0; i < key.length() && node != null; i++) {
+                node = node.child(key.charAt(i));
+            }
+
+            if (node == null) {
+                return new ArrayList<>();
+            }
+
+            return Arrays.stream(node.top)
+                    .limit(size)
+                    .map(entry -> new ItemSuggestionDto(entry.id, entry.name))
+                    .collect(Collectors.toList());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Ключи с начала каждого из первых {@value MAX_KEYS} слов названия, обрезанного до {@value MAX_KEY_LENGTH} символов:
+     * каждый символ ключа — узел дерева, поэтому длинные названия не должны раздувать индекс.
+     */
+    static Set<String> keys(String name) {
+        String[] words = normalize(name).split(" ");
+        Set<String> keys = new LinkedHashSet<>();
+
+        for (int i = 0; i < words.length && keys.size() < MAX_KEYS; i++) {
+            if (!words[i].isEmpty()) {
+                keys.add(String.join(" ", Arrays.asList(words).subList(i, words.length)));
+            }
+        }
+
+        return keys;
+    }
+
+    private static String normalize(String text) {
+        String normalized = Arrays.stream(text.toLowerCase().split("[^\\p{L}\\p{N}]+"))
+                .filter(word -> !word.isEmpty())
+                .collect(Collectors.joining(" "));
+
+        return normalized.length() > MAX_KEY_LENGTH ? normalized.substring(0, MAX_KEY_LENGTH) : normalized;
+    }
+
+    private void attach(Entry entry) {
+        for (String key : keys(entry.name)) {
+            Node[] path = new Node[key.length() + 1];
+            path[0] = root;
+
+            for (int i = 0; i < key.length(); i++) {
+                path[i + 1] = path[i].getOrAddChild(key.charAt(i));
+            }
+
+            path[key.length()].addEntry(entry);
+            updatePath(key, path);
+        }
+    }
+
+    private void detach(Entry entry) {
+        for (String key : keys(entry.name)) {
+            Node[] path = new Node[key.length() + 1];
+            path[0] = root;
+
+            for (int i = 0; i < key.length(); i++) {
+                path[i + 1] = path[i].child(key.charAt(i));
+            }
+
+            path[key.length()].removeEntry(entry.id);
+            updatePath(key, path);
+        }
+    }
+
+    private void updatePath(String key, Node[] path) {
+        for (int i = key.length(); i >= 0; i--) {
+            Node node = path[i];
+            node.top = top(node);
+
+            if (i > 0 && node.isEmpty()) {
+                path[i - 1].removeChild(key.charAt(i - 1));
+            }
+        }
+    }
+
+    private Entry[] top(Node node) {
+        List<Entry> candidates = new ArrayList<>(Arrays.asList(node.entries));
+
+        for (Node child : node.children) {
+            candidates.addAll(Arrays.asList(child.top));
+        }
+
+        candidates.sort(BY_POPULARITY);
+        Set<Long> ids = new HashSet<>();
+
+        return candidates.stream()
+                .filter(entry -> ids.add(entry.id))
+                .limit(topK)
+                .toArray(Entry[]::new);
+    }
+
+    private static final class Entry {
+        private final long id;
+        private final String name;
+        private final long popularity;
+
+        private Entry(long id, String name, long popularity) {
+            this.id = id;
+            this.name = name;
+            this.popularity = popularity;
+        }
+    }
+
+    private static final class Node {
+        private static final char[] NO_KEYS = new char[0];
+        private static final Node[] NO_CHILDREN = new Node[0];
+        private static final Entry[] NO_ENTRIES = new Entry[0];
+
+        private char[] keys = NO_KEYS;
+        private Node[] children = NO_CHILDREN;
+        private Entry[] entries = NO_ENTRIES;
+        private Entry[] top = NO_ENTRIES;
+
+        private Node child(char key) {
+            int index = Arrays.binarySearch(keys, key);
+            return index >= 0 ? children[index] : null;
+        }
+
+        private Node getOrAddChild(char key) {
+            int index = Arrays.binarySearch(keys, key);
+
+            if (index >= 0) {
+                return children[index];
+            }
+
+            int insertAt = -index - 1;
+            Node child = new Node();
+            char[] newKeys = new char[keys.length + 1];
+            Node[] newChildren = new Node[children.length + 1];
+            System.arraycopy(keys, 0, newKeys, 0, insertAt);
+            System.arraycopy(children, 0, newChildren, 0, insertAt);
+            newKeys[insertAt] = key;
+            newChildren[insertAt] = child;
+            System.arraycopy(keys, insertAt, newKeys, insertAt + 1, keys.length - insertAt);
+            System.arraycopy(children, insertAt, newChildren, insertAt + 1, children.length - insertAt);
+            keys = newKeys;
+            children = newChildren;
+            return child;
+        }
+
+        private void removeChild(char key) {
+            int index = Arrays.binarySearch(keys, key);
+
+            if (index < 0) {
+                return;
+            }
+
+            char[] newKeys = new char[keys.length - 1];
+            Node[] newChildren = new Node[children.length - 1];
+            System.arraycopy(keys, 0, newKeys, 0, index);
+            System.arraycopy(children, 0, newChildren, 0, index);
+            System.arraycopy(keys, index + 1, newKeys, index, keys.length - index - 1);
+            System.arraycopy(children, index + 1, newChildren, index, children.length - index - 1);
+            keys = newKeys;
+            children = newChildren;
+        }
+
+        private void addEntry(Entry entry) {
+            entries = Arrays.copyOf(entries, entries.length + 1);
+            entries[entries.length - 1] = entry;
+        }
+
+        private void removeEntry(long id) {
+            entries = Arrays.stream(entries)
+                    .filter(entry -> entry.id != id)
+                    .toArray(Entry[]::new);
+        }
+
+        private boolean isEmpty() {
+            return entries.length == 0 && children.length == 0;
+        }
+    }
+}
@@ -0,0 +1,277 @@
+package ru.practicum.shareit.item.search;
+
+import ru.practicum.shareit.item.dto.ItemShortDto;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+class TrigramIndex {
+    static final int MIN_QUERY_LENGTH = 3;
+    private static final long[] EMPTY = new long[0];
+
+    private final LongObjectMap<Postings> postings = new LongObjectMap<>();
+    private final LongObjectMap<ItemShortDto> documents = new LongObjectMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    void put(ItemShortDto item) {
+        long[] trigrams = trigrams(item);
+
+        lock.writeLock().lock();
+        try {
+            addDocument(item, trigrams);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void putAll(List<ItemShortDto> items) {
+        lock.writeLock().lock();
+        try {
+            items.stream()
+                    .sorted(Comparator.comparing(ItemShortDto::getId))
+                    .forEach(item -> addDocument(item, trigrams(item)));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void remove(Long itemId) {
+        lock.writeLock().lock();
+        try {
+            removeDocument(itemId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Индекс отвечает только на запросы не короче триграммы, более короткие выполняются в базе.
+     */
+    static boolean supports(String text) {
+        return text.length() >= MIN_QUERY_LENGTH;
+    }
+
+    List<ItemShortDto> search(String query, int from, int size) {
+        List<ItemShortDto> nameMatches = new ArrayList<>();
+        List<ItemShortDto> descriptionMatches = new ArrayList<>();
+
+        lock.readLock().lock();
+        try {
+            for (long id : candidates(query)) {
+                ItemShortDto item = documents.get(id);
+
+                if (containsIgnoreCase(item.getName(), query)) {
+                    nameMatches.add(item);
+
+                    if (nameMatches.size() >= from + size) {
+                        break;
+                    }
+                } else if (descriptionMatches.size() < from + size && containsIgnoreCase(item.getDescription(), query)) {
+                    descriptionMatches.add(item);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        nameMatches.addAll(descriptionMatches);
+        if (from >= nameMatches.size()) {
+            return new ArrayList<>();
+        }
+        return new ArrayList<>(nameMatches.subList(from, Math.min(from + size, nameMatches.size())));
+    }
+
+    List<ItemShortDto> searchAfter(String query, long afterId, int size) {
+        List<ItemShortDto> matches = new ArrayList<>();
+
+        lock.readLock().lock();
+        try {
+            long[] candidates = candidates(query);
+            int position = Arrays.binarySearch(candidates, afterId);
+
+            for (int i = position >= 0 ? position + 1 : -position - 1; i < candidates.length && matches.size() < size; i++) {
+                ItemShortDto item = documents.get(candidates[i]);
+
+                if (containsIgnoreCase(item.getName(), query) || containsIgnoreCase(item.getDescription(), query)) {
+                    matches.add(item);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        return matches;
+    }
+
+    private long[] candidates(String query) {
+        if (!supports(query)) {
+            return EMPTY;
+        }
+
+        long[] trigrams = trigrams(query);
+        Postings[] lists = new Postings[trigrams.length];
+
+        for (int i = 0; i < trigrams.length; i++) {
+            lists[i] = postings.get(trigrams[i]);
+
+            if (lists[i] == null) {
+                return EMPTY;
+            }
+        }
+
+        Arrays.sort(lists, Comparator.comparingInt(list -> list.size));
+        long[] result = Arrays.copyOf(lists[0].ids, lists[0].size);
+        int resultSize = result.length;
+
+        for (int i = 1; i < lists.length && resultSize > 0; i++) {
+            resultSize = intersect(result, resultSize, lists[i]);
+        }
+
+        return Arrays.copyOf(result, resultSize);
+    }
+
+    private void addDocument(ItemShortDto item, long[] trigrams) {
+        removeDocument(item.getId());
+        documents.put(item.getId(), item);
+
+        for (long trigram : trigrams) {
+            postings.computeIfAbsent(trigram, key -> new Postings()).add(item.getId());
+        }
+    }
+
+    private void removeDocument(long itemId) {
+        ItemShortDto item = documents.remove(itemId);
+
+        if (item == null) {
+            return;
+        }
+
+        for (long trigram : trigrams(item)) {
+            Postings list = postings.get(trigram);
+
+            if (list != null && list.remove(itemId) && list.size == 0) {
+                postings.remove(trigram);
+            }
+        }
+    }
+
+    private static int intersect(long[] target, int targetSize, Postings other) {
+        int size = 0;
+        int i = 0;
+        int j = 0;
+
+        while (i < targetSize && j < other.size) {
+            if (target[i] == other.ids[j]) {
+                target[size++] = target[i];
+                i++;
+                j++;
+            } else if (target[i] < other.ids[j]) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+
+        return size;
+    }
+
+    private static boolean containsIgnoreCase(String text, String query) {
+        for (int i = 0; i + query.length() <= text.length(); i++) {
+            if (text.regionMatches(true, i, query, 0, query.length())) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private static long[] trigrams(ItemShortDto item) {
+        return trigrams(item.getName(), item.getDescription());
+    }
+
+    /**
+     * Триграммы без учёта регистра: символы приводятся к нижнему регистру по одному, без копии строки.
+     */
+    static long[] trigrams(String... texts) {
+        int capacity = 0;
+
+        for (String text : texts) {
+            capacity += Math.max(text.length() - 2, 0);
+        }
+
+        long[] trigrams = new long[capacity];
+        int size = 0;
+
+        for (String text : texts) {
+            for (int i = 0; i + 2 < text.length(); i++) {
+                trigrams[size++] = ((long) Character.toLowerCase(text.charAt(i)) << 32)
+                        | ((long) Character.toLowerCase(text.charAt(i + 1)) << 16)
+                        | Character.toLowerCase(text.charAt(i + 2));
+            }
+        }
+
+        Arrays.sort(trigrams, 0, size);
+        int unique = 0;
+
+        for (int i = 0; i < size; i++) {
+            if (unique == 0 || trigrams[unique - 1] != trigrams[i]) {
+                trigrams[unique++] = trigrams[i];
+            }
+        }
+
+        return Arrays.copyOf(trigrams, unique);
+    }
+
+    private static class Postings {
+        private long[] ids = new long[4];
+        private int size;
+
+        void add(long id) {
+            if (size == 0 || ids[size - 1] < id) {
+                ensureCapacity();
+                ids[size++] = id;
+                return;
+            }
+
+            int position = Arrays.binarySearch(ids, 0, size, id);
+
+            if (position >= 0) {
+                return;
+            }
+
+            position = -position - 1;
+            ensureCapacity();
+            System.arraycopy(ids, position, ids, position + 1, size - position);
+            ids[position] = id;
+            size++;
+        }
+
+        boolean remove(long id) {
+            int position = Arrays.binarySearch(ids, 0, size, id);
+
+            if (position < 0) {
+                return false;
+            }
+
+            System.arraycopy(ids, position + 1, ids, position, size - position - 1);
+            size--;
+            return true;
+        }
+
+        private void ensureCapacity() {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, ids.length + (ids.length >> 1) + 1);
+            }
+        }
+    }
+}
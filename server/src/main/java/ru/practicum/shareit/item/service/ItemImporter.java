@@ -0,0 +1,212 @@
+package ru.practicum.shareit.item.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.item.dto.ItemImportResult;
+import ru.practicum.shareit.item.dto.ItemShortDto;
+import ru.practicum.shareit.item.event.ItemChangedEvent;
+import ru.practicum.shareit.request.ItemRequestRepository;
+import ru.practicum.shareit.request.model.ItemRequest;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Component
+class ItemImporter {
+    private static final String INSERT_ITEM = "insert into items (name, description, is_available, owner_id, request_id) " +
+            "values (?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ItemRequestRepository itemRequestRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectMapper objectMapper;
+    private final int chunkSize;
+
+    ItemImporter(JdbcTemplate jdbcTemplate,
+                 TransactionTemplate transactionTemplate,
+                 ItemRequestRepository itemRequestRepository,
+                 ApplicationEventPublisher eventPublisher,
+                 ObjectMapper objectMapper,
+                 @Value("${shareit.item.import.chunk-size}") int chunkSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.itemRequestRepository = itemRequestRepository;
+        this.eventPublisher = eventPublisher;
+        this.objectMapper = objectMapper;
+        this.chunkSize = chunkSize;
+    }
+
+    void importItems(Long ownerId, InputStream inputStream, OutputStream outputStream) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+        List<Row> chunk = new ArrayList<>(chunkSize);
+        long lineNumber = 0;
+        String line;
+
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+
+            if (line.isBlank()) {
+                continue;
+            }
+
+            chunk.add(parse(lineNumber, line));
+
+            if (chunk.size() == chunkSize) {
+                writeResults(writer, insertChunk(ownerId, chunk));
+                chunk.clear();
+            }
+        }
+
+        if (!chunk.isEmpty()) {
+            writeResults(writer, insertChunk(ownerId, chunk));
+        }
+
+        writer.flush();
+        log.info("Импорт вещей пользователя с ID {} завершён, обработано строк: {}", ownerId, lineNumber);
+    }
+
+    private Row parse(long lineNumber, String line) {
+        ItemShortDto item;
+
+        try {
+            item = objectMapper.readValue(line, ItemShortDto.class);
+        } catch (JsonProcessingException e) {
+            return new Row(lineNumber, null, "Некорректная строка JSON.");
+        }
+
+        if (item.getName() == null || item.getName().isBlank()) {
+            return new Row(lineNumber, item, "Название вещи не может быть пустым.");
+        }
+
+        if (item.getDescription() == null || item.getDescription().isBlank()) {
+            return new Row(lineNumber, item, "Описание вещи не может быть пустым.");
+        }
+
+        if (item.getAvailable() == null) {
+            return new Row(lineNumber, item, "Не указана доступность вещи.");
+        }
+
+        return new Row(lineNumber, item, null);
+    }
+
+    private List<ItemImportResult> insertChunk(Long ownerId, List<Row> chunk) {
+        Set<Long> requestIds = chunk.stream()
+                .filter(row -> row.error == null)
+                .map(row -> row.item.getRequestId())
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+
+        if (!requestIds.isEmpty()) {
+            Set<Long> existingRequestIds = itemRequestRepository.findAllById(requestIds)
+                    .stream()
+                    .map(ItemRequest::getId)
+                    .collect(Collectors.toSet());
+
+            chunk.stream()
+                    .filter(row -> row.error == null && row.item.getRequestId() != null)
+                    .filter(row -> !existingRequestIds.contains(row.item.getRequestId()))
+                    .forEach(row -> row.error = String.format("Не найден запрос с ID %d.", row.item.getRequestId()));
+        }
+
+        List<Row> validRows = chunk.stream()
+                .filter(row -> row.error == null)
+                .collect(Collectors.toList());
+
+        if (!validRows.isEmpty()) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> insertRows(ownerId, validRows));
+            } catch (DataAccessException e) {
+                log.warn("Не удалось сохранить пакет вещей: {}", e.getMessage());
+                validRows.forEach(row -> row.error = "Не удалось сохранить вещь.");
+            }
+        }
+
+        return chunk.stream()
+                .map(row -> ItemImportResult.builder()
+                        .line(row.line)
+                        .id(row.error == null ? row.item.getId() : null)
+                        .error(row.error)
+                        .build())
+                .collect(Collectors.toList());
+    }
+
+    private void insertRows(Long ownerId, List<Row> rows) {
+        List<Long> ids = jdbcTemplate.execute((ConnectionCallback<List<Long>>) connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(INSERT_ITEM, Statement.RETURN_GENERATED_KEYS)) {
+                for (Row row : rows) {
+                    statement.setString(1, row.item.getName());
+                    statement.setString(2, row.item.getDescription());
+                    statement.setBoolean(3, row.item.getAvailable());
+                    statement.setLong(4, ownerId);
+
+                    if (row.item.getRequestId() == null) {
+                        statement.setNull(5, Types.BIGINT);
+                    } else {
+                        statement.setLong(5, row.item.getRequestId());
+                    }
+
+                    statement.addBatch();
+                }
+
+                statement.executeBatch();
+
+                List<Long> generatedIds = new ArrayList<>(rows.size());
+
+                try (ResultSet keys = statement.getGeneratedKeys()) {
+                    while (keys.next()) {
+                        generatedIds.add(keys.getLong("id"));
+                    }
+                }
+
+                return generatedIds;
+            }
+        });
+
+        for (int i = 0; i < rows.size(); i++) {
+            ItemShortDto item = rows.get(i).item;
+            item.setId(ids.get(i));
+            eventPublisher.publishEvent(new ItemChangedEvent(item.getId(), item));
+        }
+    }
+
+    private void writeResults(Writer writer, List<ItemImportResult> results) throws IOException {
+        for (ItemImportResult result : results) {
+            writer.write(objectMapper.writeValueAsString(result));
+            writer.write('\n');
+        }
+
+        writer.flush();
+    }
+
+    private static class Row {
+        private final long line;
+        private final ItemShortDto item;
+        private String error;
+
+        private Row(long line, ItemShortDto item, String error) {
+            this.line = line;
+            this.item = item;
+            this.error = error;
+        }
+    }
+}
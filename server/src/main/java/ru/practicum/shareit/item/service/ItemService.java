@@ -1,24 +1,53 @@
 package ru.practicum.shareit.item.service;
 
+import ru.practicum.shareit.booking.dto.IntervalDto;
+import ru.practicum.shareit.etag.ETagSource;
+import ru.practicum.shareit.item.ItemSort;
 import ru.practicum.shareit.item.comment.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemShortDto;
+import ru.practicum.shareit.item.dto.ItemSuggestionDto;
+import ru.practicum.shareit.pagination.Cursor;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
 import java.util.Collection;
 import java.util.List;
 
-public interface ItemService {
+public interface ItemService extends ETagSource {
     ItemShortDto create(Long userId, ItemShortDto itemShortDto);
 
     ItemDto getById(Long itemId, Long ownerId);
 
     List<ItemDto> getAllItemsByUser(Long userId, Integer from, Integer size);
 
+    List<ItemDto> getAllItemsByUser(Long userId, ItemSort sort, Integer from, Integer size);
+
+    List<ItemDto> getAllItemsByUserAfter(Long userId, Cursor cursor, Integer size);
+
     ItemShortDto update(Long userId, ItemShortDto itemShortDto, Long itemId);
 
+    ItemShortDto update(Long userId, ItemShortDto itemShortDto, Long itemId, Long expectedVersion);
+
     void delete(Long itemId);
 
     Collection<ItemShortDto> searchItems(String text, Integer from, Integer size);
 
+    Collection<ItemShortDto> searchItems(String text, ItemSort sort, Integer from, Integer size);
+
+    List<ItemShortDto> searchAvailableItems(String text, LocalDateTime start, LocalDateTime end, Integer from, Integer size);
+
+    List<ItemShortDto> searchItemsAfter(String text, Cursor cursor, Integer size);
+
+    List<CommentDto> getComments(Long itemId, Long userId, Cursor cursor, Integer size);
+
+    void importItems(Long userId, InputStream inputStream, OutputStream outputStream) throws IOException;
+
+    List<IntervalDto> getAvailability(Long itemId, LocalDateTime from, LocalDateTime to);
+
+    List<ItemSuggestionDto> suggest(String prefix, Integer size);
+
     CommentDto addComment(long userId, CommentDto commentDtoFromUser, long itemId);
 }
@@ -1,23 +1,40 @@
 package ru.practicum.shareit.item.service;
 
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.PageRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import ru.practicum.shareit.booking.BookingMapper;
+import ru.practicum.shareit.booking.dto.BookingShortDto;
+import ru.practicum.shareit.booking.dto.IntervalDto;
 import ru.practicum.shareit.booking.exception.BadRequestException;
-import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.service.BookingService;
 import ru.practicum.shareit.item.ItemMapper;
 import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.item.ItemSort;
+import ru.practicum.shareit.item.SearchMode;
+import ru.practicum.shareit.item.cache.BookedIntervals;
+import ru.practicum.shareit.item.cache.CachedBookings;
+import ru.practicum.shareit.item.cache.CachedItem;
+import ru.practicum.shareit.item.cache.ItemCache;
+import ru.practicum.shareit.item.cache.ItemSearchCache;
 import ru.practicum.shareit.item.comment.CommentMapper;
 import ru.practicum.shareit.item.comment.CommentRepository;
 import ru.practicum.shareit.item.comment.dto.CommentDto;
 import ru.practicum.shareit.item.comment.model.Comment;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemShortDto;
+import ru.practicum.shareit.item.dto.ItemSuggestionDto;
+import ru.practicum.shareit.item.event.CommentAddedEvent;
+import ru.practicum.shareit.item.event.ItemChangedEvent;
 import ru.practicum.shareit.item.exceptions.ItemNotFoundException;
+import ru.practicum.shareit.item.exceptions.PreconditionFailedException;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
+import ru.practicum.shareit.item.search.ItemSuggestIndex;
+import ru.practicum.shareit.pagination.Cursor;
+import ru.practicum.shareit.pagination.FromSizeRequest;
 import ru.practicum.shareit.request.ItemRequestMapper;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.request.service.ItemRequestService;
@@ -26,6 +43,10 @@ import ru.practicum.shareit.user.exception.UserNotFoundException;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.service.UserService;
 
+import javax.validation.ValidationException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.time.LocalDateTime;
 import java.util.*;
 import java.util.stream.Collectors;
@@ -40,32 +61,53 @@ public class ItemServiceImpl implements ItemService {
     private final UserService userService;
     private final BookingService bookingService;
     private final ItemRequestService itemRequestService;
-    private final BookingMapper bookingMapper;
     private final UserMapper userMapper;
     private final CommentMapper commentMapper;
     private final ItemMapper itemMapper;
     private final ItemRequestMapper itemRequestMapper;
+    private final ItemSearchIndex itemSearchIndex;
+    private final ItemSuggestIndex itemSuggestIndex;
+    private final ItemCache itemCache;
+    private final ItemSearchCache itemSearchCache;
+    private final ItemImporter itemImporter;
+    private final ApplicationEventPublisher eventPublisher;
+    private final SearchMode searchMode;
+    private final int commentsLimit;
 
     public ItemServiceImpl(ItemRepository itemRepository,
                            CommentRepository commentRepository,
                            UserService userService,
                            BookingService bookingService,
                            ItemRequestService itemRequestService,
-                           BookingMapper bookingMapper,
                            UserMapper userMapper,
                            CommentMapper commentMapper,
                            ItemMapper itemMapper,
-                           ItemRequestMapper itemRequestMapper) {
+                           ItemRequestMapper itemRequestMapper,
+                           ItemSearchIndex itemSearchIndex,
+                           ItemSuggestIndex itemSuggestIndex,
+                           ItemCache itemCache,
+                           ItemSearchCache itemSearchCache,
+                           ItemImporter itemImporter,
+                           ApplicationEventPublisher eventPublisher,
+                           @Value("${shareit.search.mode}") SearchMode searchMode,
+                           @Value("${shareit.item.comments-limit}") int commentsLimit) {
         this.itemRepository = itemRepository;
         this.commentRepository = commentRepository;
         this.userService = userService;
         this.bookingService = bookingService;
         this.itemRequestService = itemRequestService;
-        this.bookingMapper = bookingMapper;
         this.userMapper = userMapper;
         this.commentMapper = commentMapper;
         this.itemMapper = itemMapper;
         this.itemRequestMapper = itemRequestMapper;
+        this.itemSearchIndex = itemSearchIndex;
+        this.itemSuggestIndex = itemSuggestIndex;
+        this.itemCache = itemCache;
+        this.itemSearchCache = itemSearchCache;
+        this.itemImporter = itemImporter;
+        this.eventPublisher = eventPublisher;
+        this.searchMode = searchMode;
+        this.commentsLimit = commentsLimit;
     }
 
     @Transactional
@@ -82,40 +124,27 @@ public class ItemServiceImpl implements ItemService {
 
         log.info("Добавлена вещь {}", item);
         itemRepository.save(item);
-        return itemMapper.toItemShortDto(item);
+        ItemShortDto createdItem = itemMapper.toItemShortDto(item);
+        eventPublisher.publishEvent(new ItemChangedEvent(createdItem.getId(), createdItem));
+        return createdItem;
     }
 
     @Transactional(readOnly = true)
     @Override
     public ItemDto getById(Long itemId, Long userId) {
-        Item item = itemRepository.findById(itemId).orElseThrow(
-                () -> new ItemNotFoundException("Не найдена вещь с id: " + itemId)
-        );
+        CachedItem cachedItem = itemCache.getItem(itemId, this::loadItem);
 
         userService.getById(userId);
 
-        ItemDto itemDto = itemMapper.toItemDto(item);
+        ItemDto itemDto = cachedItem.getItem().toBuilder()
+                .comments(new ArrayList<>(cachedItem.getItem().getComments()))
+                .build();
 
-        itemDto.setComments(commentRepository.findAllByItemId(itemId)
-                .stream()
-                .map(commentMapper::toCommentDto)
-                .collect(Collectors.toList()));
-
-        if (item.getOwner().getId().equals(userId)) {
-            Optional<Booking> lastBooking = bookingService.findLastItem(itemId);
-            Optional<Booking> nextBooking = bookingService.findNextItem(itemId);
+        if (cachedItem.getOwnerId().equals(userId)) {
+            CachedBookings cachedBookings = itemCache.getBookings(itemId, this::loadBookings);
 
-            if (lastBooking.isEmpty()) {
-                itemDto.setLastBooking(null);
-            } else {
-                itemDto.setLastBooking(bookingMapper.toBookingShortDto(lastBooking.get()));
-            }
-
-            if (nextBooking.isEmpty()) {
-                itemDto.setNextBooking(null);
-            } else {
-                itemDto.setNextBooking(bookingMapper.toBookingShortDto(nextBooking.get()));
-            }
+            itemDto.setLastBooking(cachedBookings.getLastBooking());
+            itemDto.setNextBooking(cachedBookings.getNextBooking());
         }
 
         log.info("Найдена вещь {}", itemDto);
@@ -126,40 +155,65 @@ public class ItemServiceImpl implements ItemService {
     @Override
     public List<ItemDto> getAllItemsByUser(Long userId, Integer from, Integer size) {
         userService.getById(userId);
-        List<ItemDto> allItemsByUser = itemRepository.findAllByOwnerId(userId, PageRequest.of(from / size, size))
-                .stream()
-                .sorted(Comparator.comparing(Item::getId))
-                .map(itemMapper::toItemDto)
-                .peek(
-                        itemDto -> {
-                            Optional<Booking> lastBooking = bookingService.findLastItem(itemDto.getId());
-                            Optional<Booking> nextBooking = bookingService.findNextItem(itemDto.getId());
-
-                            if (lastBooking.isEmpty()) {
-                                itemDto.setLastBooking(null);
-                            } else {
-                                itemDto.setLastBooking(bookingMapper.toBookingShortDto(lastBooking.get()));
-                            }
-
-                            if (nextBooking.isEmpty()) {
-                                itemDto.setNextBooking(null);
-                            } else {
-                                itemDto.setNextBooking(bookingMapper.toBookingShortDto(nextBooking.get()));
-                            }
-
-                            itemDto.setComments(commentRepository.findAllByItemId(itemDto.getId())
-                                    .stream().map(commentMapper::toCommentDto).collect(Collectors.toList()));
-                        })
-                .collect(Collectors.toList());
+        List<ItemDto> allItemsByUser = toItemDtosWithBookings(
+                itemRepository.findAllByOwnerIdOrderById(userId, FromSizeRequest.of(from, size)));
 
         log.info("Найденные вещи {} пользователя с ID {}", allItemsByUser, userId);
         return allItemsByUser;
     }
 
+    @Transactional(readOnly = true)
+    @Override
+    public List<ItemDto> getAllItemsByUser(Long userId, ItemSort sort, Integer from, Integer size) {
+        if (sort != ItemSort.POPULARITY) {
+            return getAllItemsByUser(userId, from, size);
+        }
+
+        userService.getById(userId);
+        List<ItemDto> allItemsByUser = toItemDtosWithBookings(
+                itemRepository.findAllByOwnerIdOrderByPopularity(userId, FromSizeRequest.of(from, size)));
+
+        log.info("Найденные вещи {} пользователя с ID {}", allItemsByUser, userId);
+        return allItemsByUser;
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public List<ItemDto> getAllItemsByUserAfter(Long userId, Cursor cursor, Integer size) {
+        userService.getById(userId);
+        List<ItemDto> allItemsByUser = toItemDtosWithBookings(itemRepository.findAllByOwnerIdAndIdGreaterThanOrderById(
+                userId, cursor == null ? 0L : cursor.getId(), Pageable.ofSize(size)));
+
+        log.info("Найденные вещи {} пользователя с ID {}", allItemsByUser, userId);
+        return allItemsByUser;
+    }
+
+    @Override
+    public String getETag(Long itemId, Long userId) {
+        return itemRepository.findVersionById(itemId)
+                .map(version -> {
+                    if (!version.getOwnerId().equals(userId)) {
+                        return String.valueOf(version.getVersion());
+                    }
+
+                    CachedBookings cachedBookings = itemCache.getBookings(itemId, this::loadBookings);
+                    return String.format("%d-%d-%d", version.getVersion(),
+                            cachedBookings.getLastBooking() == null ? 0 : cachedBookings.getLastBooking().getId(),
+                            cachedBookings.getNextBooking() == null ? 0 : cachedBookings.getNextBooking().getId());
+                })
+                .orElse(null);
+    }
+
     @Transactional
     @Override
     public ItemShortDto update(Long userId, ItemShortDto itemShortDto, Long itemId) {
-        User user = userMapper.toUser(userService.getById(userId));
+        return update(userId, itemShortDto, itemId, null);
+    }
+
+    @Transactional
+    @Override
+    public ItemShortDto update(Long userId, ItemShortDto itemShortDto, Long itemId, Long expectedVersion) {
+        userService.getById(userId);
         Item item = itemRepository.findById(itemId).orElseThrow(
                 () -> new ItemNotFoundException(String.format("Не найдена вещь с ID %d", itemId))
         );
@@ -169,6 +223,11 @@ public class ItemServiceImpl implements ItemService {
             throw new UserNotFoundException("Невозможно обновить вещь, т.к. она пренадлежит другому пользователю.");
         }
 
+        if (expectedVersion != null && expectedVersion != item.getVersion()) {
+            log.warn("Версия вещи {} не совпадает с ожидаемой {}.", item.getVersion(), expectedVersion);
+            throw new PreconditionFailedException(String.format("Вещь с ID %d была изменена.", itemId));
+        }
+
         if (itemShortDto.getName() == null) {
             itemShortDto.setName(item.getName());
         }
@@ -181,20 +240,23 @@ public class ItemServiceImpl implements ItemService {
             itemShortDto.setAvailable(item.getAvailable());
         }
 
-        itemShortDto.setId(itemId);
-
-        Item newItem = itemMapper.toItem(itemShortDto);
-        newItem.setOwner(user);
-        itemRepository.save(newItem);
+        item.setName(itemShortDto.getName());
+        item.setDescription(itemShortDto.getDescription());
+        item.setAvailable(itemShortDto.getAvailable());
+        itemRepository.save(item);
 
-        log.info("Обновлена вещь {}", newItem);
-        return itemMapper.toItemShortDto(newItem);
+        log.info("Обновлена вещь {}", item);
+        ItemShortDto updatedItem = itemMapper.toItemShortDto(item);
+        eventPublisher.publishEvent(new ItemChangedEvent(itemId, updatedItem,
+                item.getCommentsCount() == null ? 0 : item.getCommentsCount()));
+        return updatedItem;
     }
 
     @Transactional
     @Override
     public void delete(Long itemId) {
         itemRepository.deleteById(itemId);
+        eventPublisher.publishEvent(new ItemChangedEvent(itemId, null));
     }
 
     @Transactional(readOnly = true)
@@ -204,12 +266,151 @@ public class ItemServiceImpl implements ItemService {
             return new ArrayList<>();
         }
 
-        return itemRepository.searchItems(text, PageRequest.of(from / size, size))
+        if (searchMode == SearchMode.MEMORY && itemSearchIndex.canSearch(text)) {
+            return itemSearchIndex.search(text, from, size);
+        }
+
+        return itemSearchCache.get(text, from, size, query -> findItems(query, from, size));
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public Collection<ItemShortDto> searchItems(String text, ItemSort sort, Integer from, Integer size) {
+        if (sort != ItemSort.POPULARITY) {
+            return searchItems(text, from, size);
+        }
+
+        if (text.isBlank()) {
+            return new ArrayList<>();
+        }
+
+        if (searchMode == SearchMode.FULL_TEXT) {
+            String tsQuery = toTsQuery(text);
+
+            if (tsQuery.isEmpty()) {
+                return new ArrayList<>();
+            }
+
+            return itemRepository.searchItemsFullTextByPopularity(tsQuery, FromSizeRequest.of(from, size))
+                    .stream()
+                    .map(itemMapper::toItemShortDto)
+                    .collect(Collectors.toList());
+        }
+
+        return itemRepository.searchItemsByPopularity(text, FromSizeRequest.of(from, size));
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public List<ItemShortDto> searchAvailableItems(String text, LocalDateTime start, LocalDateTime end,
+                                                   Integer from, Integer size) {
+        if (!end.isAfter(start)) {
+            throw new ValidationException("Дата окончания периода должна быть позже даты начала.");
+        }
+
+        if (text.isBlank()) {
+            return new ArrayList<>();
+        }
+
+        if (searchMode == SearchMode.FULL_TEXT) {
+            String tsQuery = toTsQuery(text);
+
+            if (tsQuery.isEmpty()) {
+                return new ArrayList<>();
+            }
+
+            return itemRepository.searchAvailableItemsFullText(tsQuery, start, end, FromSizeRequest.of(from, size))
+                    .stream()
+                    .map(itemMapper::toItemShortDto)
+                    .collect(Collectors.toList());
+        }
+
+        return itemRepository.searchAvailableItems(text, start, end, FromSizeRequest.of(from, size));
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public List<ItemShortDto> searchItemsAfter(String text, Cursor cursor, Integer size) {
+        if (text.isBlank()) {
+            return new ArrayList<>();
+        }
+
+        long afterId = cursor == null ? 0L : cursor.getId();
+
+        if (searchMode == SearchMode.MEMORY && itemSearchIndex.canSearch(text)) {
+            return itemSearchIndex.searchAfter(text, afterId, size);
+        }
+
+        if (searchMode == SearchMode.FULL_TEXT) {
+            String tsQuery = toTsQuery(text);
+
+            if (tsQuery.isEmpty()) {
+                return new ArrayList<>();
+            }
+
+            return itemRepository.searchItemsFullTextAfter(tsQuery, afterId, Pageable.ofSize(size))
+                    .stream()
+                    .map(itemMapper::toItemShortDto)
+                    .collect(Collectors.toList());
+        }
+
+        return itemRepository.searchItemsAfter(text, afterId, Pageable.ofSize(size));
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public List<IntervalDto> getAvailability(Long itemId, LocalDateTime from, LocalDateTime to) {
+        if (!to.isAfter(from)) {
+            throw new ValidationException("Дата окончания периода должна быть позже даты начала.");
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+
+        if (!to.isAfter(now)) {
+            return new ArrayList<>();
+        }
+
+        return itemCache.getBookedIntervals(itemId, this::loadBookedIntervals)
+                .freeIntervals(from.isBefore(now) ? now : from, to);
+    }
+
+    @Override
+    public List<ItemSuggestionDto> suggest(String prefix, Integer size) {
+        return itemSuggestIndex.suggest(prefix, size);
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public List<CommentDto> getComments(Long itemId, Long userId, Cursor cursor, Integer size) {
+        userService.getById(userId);
+
+        if (!itemRepository.existsById(itemId)) {
+            throw new ItemNotFoundException(String.format("Вещь с ID %d не найдена.", itemId));
+        }
+
+        List<Comment> comments;
+
+        if (cursor == null) {
+            comments = commentRepository.findAllByItemIdOrderByCreatedDescIdDesc(itemId, Pageable.ofSize(size));
+        } else if (cursor.getTimestamp() == null) {
+            throw new ValidationException("Курсор не содержит даты комментария.");
+        } else {
+            comments = commentRepository.findAllByItemIdBefore(itemId, cursor.getTimestamp(), cursor.getId(),
+                    Pageable.ofSize(size));
+        }
+
+        return comments
                 .stream()
-                .map(itemMapper::toItemShortDto)
+                .map(commentMapper::toCommentDto)
                 .collect(Collectors.toList());
     }
 
+    @Override
+    public void importItems(Long userId, InputStream inputStream, OutputStream outputStream) throws IOException {
+        userService.getById(userId);
+        itemImporter.importItems(userId, inputStream, outputStream);
+    }
+
     @Transactional
     @Override
     public CommentDto addComment(long userId, CommentDto commentDto, long itemId) {
@@ -227,7 +428,88 @@ public class ItemServiceImpl implements ItemService {
         comment.setAuthor(user);
         comment.setCreated(LocalDateTime.now());
         commentRepository.save(comment);
+        itemRepository.incrementCommentsCount(itemId);
+
+        CommentDto createdComment = commentMapper.toCommentDto(comment);
+        eventPublisher.publishEvent(new CommentAddedEvent(itemId, createdComment));
+        return createdComment;
+    }
+
+    private CachedItem loadItem(Long itemId) {
+        Item item = itemRepository.findById(itemId).orElseThrow(
+                () -> new ItemNotFoundException("Не найдена вещь с id: " + itemId)
+        );
+
+        ItemDto itemDto = itemMapper.toItemDto(item);
+
+        itemDto.setComments(commentRepository.findAllByItemIdOrderByCreatedDescIdDesc(itemId, Pageable.ofSize(commentsLimit))
+                .stream()
+                .map(commentMapper::toCommentDto)
+                .collect(Collectors.toList()));
+
+        return new CachedItem(itemDto, item.getOwner().getId());
+    }
+
+    private BookedIntervals loadBookedIntervals(Long itemId) {
+        if (!itemRepository.existsById(itemId)) {
+            throw new ItemNotFoundException(String.format("Вещь с ID %d не найдена.", itemId));
+        }
+
+        return BookedIntervals.of(bookingService.findActiveIntervals(itemId));
+    }
+
+    private CachedBookings loadBookings(Long itemId) {
+        return new CachedBookings(
+                bookingService.findLastItem(itemId).orElse(null),
+                bookingService.findNextItem(itemId).orElse(null));
+    }
+
+    private List<ItemDto> toItemDtosWithBookings(List<ItemDto> items) {
+        if (items.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        List<Long> itemIds = items.stream()
+                .map(ItemDto::getId)
+                .collect(Collectors.toList());
+        Map<Long, BookingShortDto> lastBookings = bookingService.findLastBookings(itemIds);
+        Map<Long, BookingShortDto> nextBookings = bookingService.findNextBookings(itemIds);
+        Map<Long, List<CommentDto>> comments = commentRepository.findLatestByItemIdIn(itemIds, commentsLimit)
+                .stream()
+                .collect(Collectors.groupingBy(comment -> comment.getItem().getId(),
+                        Collectors.mapping(commentMapper::toCommentDto, Collectors.toList())));
+
+        return items.stream()
+                .peek(
+                        itemDto -> {
+                            itemDto.setLastBooking(lastBookings.get(itemDto.getId()));
+                            itemDto.setNextBooking(nextBookings.get(itemDto.getId()));
+                            itemDto.setComments(comments.getOrDefault(itemDto.getId(), new ArrayList<>()));
+                        })
+                .collect(Collectors.toList());
+    }
+
+    private List<ItemShortDto> findItems(String text, Integer from, Integer size) {
+        if (searchMode == SearchMode.FULL_TEXT) {
+            String tsQuery = toTsQuery(text);
+
+            if (tsQuery.isEmpty()) {
+                return new ArrayList<>();
+            }
+
+            return itemRepository.searchItemsFullText(tsQuery, FromSizeRequest.of(from, size))
+                    .stream()
+                    .map(itemMapper::toItemShortDto)
+                    .collect(Collectors.toList());
+        }
+
+        return itemRepository.searchItems(text, FromSizeRequest.of(from, size));
+    }
 
-        return commentMapper.toCommentDto(comment);
+    private String toTsQuery(String text) {
+        return Arrays.stream(text.toLowerCase().split("[^\\p{L}\\p{N}]+"))
+                .filter(token -> !token.isEmpty())
+                .map(token -> token + ":*")
+                .collect(Collectors.joining(" & "));
     }
 }
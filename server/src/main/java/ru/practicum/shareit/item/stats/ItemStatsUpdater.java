@@ -0,0 +1,212 @@
+package ru.practicum.shareit.item.stats;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.Status;
+import ru.practicum.shareit.booking.event.BookingChangedEvent;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.item.event.CommentAddedEvent;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.LongStream;
+
+@Slf4j
+@Component
+public class ItemStatsUpdater {
+    private static final int RECENT_BOOKING_WEIGHT = 2;
+    private static final int CHUNK_LOCK_STRIPES = 16;
+    private static final String UPDATE_STATS = "update item_stats set approved_bookings = approved_bookings + ?, " +
+            "recent_bookings = recent_bookings + ?, comments_count = comments_count + ?, score = score + ? " +
+            "where item_id = ?";
+    private static final String INSERT_STATS = "insert into item_stats " +
+            "(approved_bookings, recent_bookings, comments_count, score, item_id) " +
+            "select ?, ?, ?, ?, id from items where id = ?";
+    private static final String DELETE_CHUNK = "delete from item_stats where item_id between ? and ?";
+    private static final String REBUILD_CHUNK = "insert into item_stats " +
+            "(item_id, approved_bookings, recent_bookings, comments_count, score) " +
+            "select i.id, coalesce(b.approved, 0), coalesce(b.recent, 0), coalesce(c.comments, 0), " +
+            "coalesce(b.approved, 0) + " + RECENT_BOOKING_WEIGHT + " * coalesce(b.recent, 0) + coalesce(c.comments, 0) " +
+            "from items as i " +
+            "left join (select item_id, count(*) as approved, " +
+            "sum(case when end_date > ? then 1 else 0 end) as recent " +
+            "from bookings where status = 'APPROVED' and item_id between ? and ? group by item_id) as b " +
+            "on b.item_id = i.id " +
+            "left join (select item_id, count(*) as comments " +
+            "from comments where item_id between ? and ? group by item_id) as c " +
+            "on c.item_id = i.id " +
+            "where i.id between ? and ? and (b.item_id is not null or c.item_id is not null)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ItemRepository itemRepository;
+    private final Duration recentPeriod;
+    private final int chunkSize;
+    private final Map<Long, Delta> pendingDeltas = new ConcurrentHashMap<>();
+    private final ReadWriteLock[] chunkLocks = new ReadWriteLock[CHUNK_LOCK_STRIPES];
+
+    public ItemStatsUpdater(JdbcTemplate jdbcTemplate,
+                            TransactionTemplate transactionTemplate,
+                            ItemRepository itemRepository,
+                            @Value("${shareit.item.stats.recent-period}") Duration recentPeriod,
+                            @Value("${shareit.item.stats.rebuild-chunk-size}") int chunkSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.itemRepository = itemRepository;
+        this.recentPeriod = recentPeriod;
+        this.chunkSize = chunkSize;
+
+        for (int i = 0; i < CHUNK_LOCK_STRIPES; i++) {
+            chunkLocks[i] = new ReentrantReadWriteLock();
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void onBookingChanged(BookingChangedEvent event) {
+        if (event.getStatus() == Status.APPROVED) {
+            long recent = event.getEnd().isAfter(LocalDateTime.now().minus(recentPeriod)) ? 1 : 0;
+            addOnCommit(event.getItemId(), new Delta(1, recent, 0));
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void onCommentAdded(CommentAddedEvent event) {
+        addOnCommit(event.getItemId(), new Delta(0, 0, 1));
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.item.stats.flush-interval}")
+    public synchronized void flush() {
+        Map<Long, Delta> deltas = new LinkedHashMap<>();
+        List<Object[]> rows = new ArrayList<>();
+
+        for (Long itemId : pendingDeltas.keySet()) {
+            Delta delta = pendingDeltas.remove(itemId);
+
+            if (delta != null) {
+                deltas.put(itemId, delta);
+                rows.add(new Object[]{delta.approvedBookings, delta.recentBookings, delta.comments, delta.score(),
+                        itemId});
+            }
+        }
+
+        if (rows.isEmpty()) {
+            return;
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                int[] updated = jdbcTemplate.batchUpdate(UPDATE_STATS, rows);
+                List<Object[]> missing = new ArrayList<>();
+
+                for (int i = 0; i < updated.length; i++) {
+                    if (updated[i] == 0) {
+                        missing.add(rows.get(i));
+                    }
+                }
+
+                if (!missing.isEmpty()) {
+                    jdbcTemplate.batchUpdate(INSERT_STATS, missing);
+                }
+            });
+        } catch (RuntimeException e) {
+            // Приращения возвращаются в очередь и попадут в следующую запись.
+            deltas.forEach((itemId, delta) -> pendingDeltas.merge(itemId, delta, Delta::plus));
+            log.warn("Не удалось обновить статистику вещей {}: {}", deltas.keySet(), e.getMessage());
+            return;
+        }
+
+        log.debug("Обновлена статистика вещей {}", deltas.keySet());
+    }
+
+    /**
+     * Пересчитывает статистику из бронирований и комментариев, в том числе устаревшие недавние бронирования.
+     */
+    @Scheduled(cron = "${shareit.item.stats.rebuild-cron}")
+    public synchronized void rebuild() {
+        long startTime = System.currentTimeMillis();
+        Long maxId = itemRepository.findMaxId();
+        LocalDateTime recentFrom = LocalDateTime.now().minus(recentPeriod);
+
+        if (maxId != null) {
+            LongStream.rangeClosed(0, maxId / chunkSize)
+                    .parallel()
+                    .forEach(chunk -> rebuildChunk(chunk * chunkSize + 1, (chunk + 1) * chunkSize, recentFrom));
+        }
+
+        log.info("Статистика вещей пересчитана за {} мс.", System.currentTimeMillis() - startTime);
+    }
+
+    /**
+     * Приращение попадает в очередь после фиксации транзакции. От начала фиксации до её завершения удерживается
+     * блокировка пачки вещи на чтение, чтобы пересчёт пачки не застал изменение наполовину учтённым.
+     */
+    private void addOnCommit(Long itemId, Delta delta) {
+        ReadWriteLock lock = chunkLock((itemId - 1) / chunkSize);
+        lock.readLock().lock();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                pendingDeltas.merge(itemId, delta, Delta::plus);
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                lock.readLock().unlock();
+            }
+        });
+    }
+
+    /**
+     * Пока пачка пересчитывается, изменения её вещей не фиксируются: все приращения в очереди уже видны запросу
+     * пересчёта и после его фиксации отбрасываются, а более поздние ему не видны и будут применены при следующей записи.
+     */
+    private void rebuildChunk(long fromId, long toId, LocalDateTime recentFrom) {
+        ReadWriteLock lock = chunkLock((fromId - 1) / chunkSize);
+        lock.writeLock().lock();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.update(DELETE_CHUNK, fromId, toId);
+                jdbcTemplate.update(REBUILD_CHUNK, recentFrom, fromId, toId, fromId, toId, fromId, toId);
+            });
+            pendingDeltas.keySet().removeIf(itemId -> itemId >= fromId && itemId <= toId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private ReadWriteLock chunkLock(long chunk) {
+        return chunkLocks[(int) (chunk % CHUNK_LOCK_STRIPES)];
+    }
+
+    @RequiredArgsConstructor
+    private static class Delta {
+        private final long approvedBookings;
+        private final long recentBookings;
+        private final long comments;
+
+        private Delta plus(Delta other) {
+            return new Delta(approvedBookings + other.approvedBookings, recentBookings + other.recentBookings,
+                    comments + other.comments);
+        }
+
+        private long score() {
+            return approvedBookings + RECENT_BOOKING_WEIGHT * recentBookings + comments;
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package ru.practicum.shareit.item.stats.model;
+
+import lombok.*;
+import org.hibernate.annotations.Immutable;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+@Data
+@Builder
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Immutable
+@Table(name = "item_stats")
+public class ItemStats {
+    @Id
+    @Column(name = "item_id", nullable = false)
+    private Long itemId;
+    @Column(name = "approved_bookings", nullable = false)
+    private long approvedBookings;
+    @Column(name = "recent_bookings", nullable = false)
+    private long recentBookings;
+    @Column(name = "comments_count", nullable = false)
+    private long commentsCount;
+    @Column(name = "score", nullable = false)
+    private long score;
+}
@@ -1,7 +1,9 @@
 package ru.practicum.shareit.request;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import ru.practicum.shareit.pagination.Cursor;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.service.ItemRequestService;
 
@@ -37,6 +39,14 @@ public class ItemRequestController {
         return itemRequestService.getAllRequests(userId, from, size);
     }
 
+    @GetMapping(path = "/all", params = "cursor")
+    public ResponseEntity<List<ItemRequestDto>> getAllRequestsAfter(@RequestHeader(xSharerUserId) Long userId,
+                                                                    @RequestParam(defaultValue = "") String cursor,
+                                                                    @RequestParam(defaultValue = "10") Integer size) {
+        return Cursor.toResponse(itemRequestService.getAllRequestsAfter(userId, Cursor.decode(cursor), size), size,
+                itemRequestDto -> Cursor.of(itemRequestDto.getCreated(), itemRequestDto.getId()));
+    }
+
     @GetMapping("/{requestId}")
     public ItemRequestDto getById(@PathVariable Long requestId, @RequestHeader(xSharerUserId) Long userId) {
         return itemRequestService.getById(requestId, userId);
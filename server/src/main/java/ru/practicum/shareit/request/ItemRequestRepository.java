@@ -1,17 +1,31 @@
 package ru.practicum.shareit.request;
 
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.model.ItemRequest;
-import ru.practicum.shareit.user.model.User;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
 public interface ItemRequestRepository extends JpaRepository<ItemRequest, Long> {
-    List<ItemRequest> findAllByRequesterIdOrderByCreated(Long userId);
+    @Query("select new ru.practicum.shareit.request.dto.ItemRequestDto(r.id, r.description, r.created) from ItemRequest as r " +
+            "where r.requester.id = ?1 order by r.created")
+    List<ItemRequestDto> findAllByRequesterIdOrderByCreated(Long userId);
 
-    Page<ItemRequest> findAllByRequesterIsNot(User user, Pageable pageable);
+    @Query("select new ru.practicum.shareit.request.dto.ItemRequestDto(r.id, r.description, r.created) from ItemRequest as r " +
+            "where r.requester.id <> ?1")
+    List<ItemRequestDto> findAllByRequesterIdIsNot(Long userId, Pageable pageable);
+
+    @Query("select new ru.practicum.shareit.request.dto.ItemRequestDto(r.id, r.description, r.created) from ItemRequest as r " +
+            "where r.requester.id <> ?1 and (r.created < ?2 or (r.created = ?2 and r.id < ?3)) " +
+            "order by r.created desc, r.id desc")
+    List<ItemRequestDto> findAllByRequesterIdIsNotAfter(Long userId, LocalDateTime created, Long id, Pageable pageable);
+
+    @Query("select new ru.practicum.shareit.request.dto.ItemRequestDto(r.id, r.description, r.created) from ItemRequest as r " +
+            "where r.requester.id <> ?1 order by r.created desc, r.id desc")
+    List<ItemRequestDto> findAllByRequesterIdIsNotFirst(Long userId, Pageable pageable);
 }
@@ -1,5 +1,6 @@
 package ru.practicum.shareit.request.service;
 
+import ru.practicum.shareit.pagination.Cursor;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 
 import java.util.List;
@@ -11,5 +12,7 @@ public interface ItemRequestService {
 
     List<ItemRequestDto> getAllRequests(Long userId, Integer from, Integer size);
 
+    List<ItemRequestDto> getAllRequestsAfter(Long userId, Cursor cursor, Integer size);
+
     ItemRequestDto getById(Long requestId, Long userId);
 }
\ No newline at end of file
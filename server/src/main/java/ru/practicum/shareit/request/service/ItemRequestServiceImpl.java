@@ -1,13 +1,15 @@
 package ru.practicum.shareit.request.service;
 
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import ru.practicum.shareit.item.ItemMapper;
 import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.exceptions.ItemNotFoundException;
+import ru.practicum.shareit.pagination.Cursor;
+import ru.practicum.shareit.pagination.FromSizeRequest;
 import ru.practicum.shareit.request.ItemRequestMapper;
 import ru.practicum.shareit.request.ItemRequestRepository;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
@@ -16,9 +18,11 @@ import ru.practicum.shareit.user.UserMapper;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.service.UserService;
 
+import javax.validation.ValidationException;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
@@ -28,20 +32,17 @@ public class ItemRequestServiceImpl implements ItemRequestService {
     private final UserService userService;
     private final ItemRepository itemRepository;
     private final ItemRequestMapper itemRequestMapper;
-    private final ItemMapper itemMapper;
     private final UserMapper userMapper;
 
     public ItemRequestServiceImpl(ItemRequestRepository itemRequestRepository,
                                   UserService userService,
                                   ItemRepository itemRepository,
                                   ItemRequestMapper itemRequestMapper,
-                                  ItemMapper itemMapper,
                                   UserMapper userMapper) {
         this.itemRequestRepository = itemRequestRepository;
         this.userService = userService;
         this.itemRepository = itemRepository;
         this.itemRequestMapper = itemRequestMapper;
-        this.itemMapper = itemMapper;
         this.userMapper = userMapper;
     }
 
@@ -64,16 +65,13 @@ public class ItemRequestServiceImpl implements ItemRequestService {
     public List<ItemRequestDto> getAllRequestsByOwner(Long userId) {
         userService.getById(userId);
 
-        List<ItemRequest> itemRequestList = itemRequestRepository.findAllByRequesterIdOrderByCreated(userId);
+        List<ItemRequestDto> itemRequestDtoList = itemRequestRepository.findAllByRequesterIdOrderByCreated(userId);
 
-        if (itemRequestList.isEmpty()) {
+        if (itemRequestDtoList.isEmpty()) {
             log.info("Список запросов владельца пуст.");
             return new ArrayList<>();
         } else {
-            List<ItemRequestDto> itemRequestDtoList = itemRequestList.stream()
-                    .map(itemRequestMapper::toItemRequestDto)
-                    .peek(this::getItemResponseDto)
-                    .collect(Collectors.toList());
+            setItems(itemRequestDtoList);
 
             log.info("Список запросов владельца {}", itemRequestDtoList);
             return itemRequestDtoList;
@@ -83,14 +81,32 @@ public class ItemRequestServiceImpl implements ItemRequestService {
     @Transactional(readOnly = true)
     @Override
     public List<ItemRequestDto> getAllRequests(Long userId, Integer from, Integer size) {
-        User user = userMapper.toUser(userService.getById(userId));
+        userService.getById(userId);
 
-        List<ItemRequestDto> itemRequestDtoList = itemRequestRepository.findAllByRequesterIsNot(user,
-                        PageRequest.of(from / size, size, Sort.by(Sort.Direction.DESC, "created")))
-                .stream()
-                .map(itemRequestMapper::toItemRequestDto)
-                .map(this::setItemsToItemRequestDto)
-                .collect(Collectors.toList());
+        List<ItemRequestDto> itemRequestDtoList = itemRequestRepository.findAllByRequesterIdIsNot(userId,
+                FromSizeRequest.of(from, size, Sort.by(Sort.Direction.DESC, "created", "id")));
+        setItems(itemRequestDtoList);
+
+        log.info("Список запросов: {}", itemRequestDtoList);
+        return itemRequestDtoList;
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public List<ItemRequestDto> getAllRequestsAfter(Long userId, Cursor cursor, Integer size) {
+        userService.getById(userId);
+        List<ItemRequestDto> itemRequestDtoList;
+
+        if (cursor == null) {
+            itemRequestDtoList = itemRequestRepository.findAllByRequesterIdIsNotFirst(userId, Pageable.ofSize(size));
+        } else if (cursor.getTimestamp() == null) {
+            throw new ValidationException("Некорректный курсор запроса.");
+        } else {
+            itemRequestDtoList = itemRequestRepository.findAllByRequesterIdIsNotAfter(userId, cursor.getTimestamp(),
+                    cursor.getId(), Pageable.ofSize(size));
+        }
+
+        setItems(itemRequestDtoList);
 
         log.info("Список запросов: {}", itemRequestDtoList);
         return itemRequestDtoList;
@@ -106,24 +122,24 @@ public class ItemRequestServiceImpl implements ItemRequestService {
         );
 
         ItemRequestDto itemRequestDto = itemRequestMapper.toItemRequestDto(itemRequest);
-        getItemResponseDto(itemRequestDto);
+        setItems(List.of(itemRequestDto));
 
         log.info("Найден запрос {}", itemRequestDto);
         return itemRequestDto;
     }
 
-    private void getItemResponseDto(ItemRequestDto itemRequestDto) {
-        itemRequestDto.setItems(itemRepository.findAllByRequestId(itemRequestDto.getId())
-                .stream()
-                .map(itemMapper::toItemDto)
-                .collect(Collectors.toList()));
-    }
+    private void setItems(List<ItemRequestDto> itemRequestDtoList) {
+        if (itemRequestDtoList.isEmpty()) {
+            return;
+        }
 
-    private ItemRequestDto setItemsToItemRequestDto(ItemRequestDto itemRequestDto) {
-        itemRequestDto.setItems(itemRepository.findAllByRequestId(itemRequestDto.getId())
+        Map<Long, List<ItemDto>> items = itemRepository.findAllByRequestIdIn(itemRequestDtoList.stream()
+                        .map(ItemRequestDto::getId)
+                        .collect(Collectors.toList()))
                 .stream()
-                .map(itemMapper::toItemDto)
-                .collect(Collectors.toList()));
-        return itemRequestDto;
+                .collect(Collectors.groupingBy(ItemDto::getRequestId));
+
+        itemRequestDtoList.forEach(itemRequestDto ->
+                itemRequestDto.setItems(items.getOrDefault(itemRequestDto.getId(), new ArrayList<>())));
     }
 }
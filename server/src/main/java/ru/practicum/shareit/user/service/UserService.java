@@ -1,10 +1,11 @@
 package ru.practicum.shareit.user.service;
 
+import ru.practicum.shareit.etag.ETagSource;
 import ru.practicum.shareit.user.dto.UserDto;
 
 import java.util.List;
 
-public interface UserService {
+public interface UserService extends ETagSource {
     UserDto create(UserDto userDto);
 
     UserDto getById(Long userId);
@@ -61,9 +61,20 @@ public class UserServiceImpl implements UserService {
         }
     }
 
+    @Override
+    public String getETag(Long userId, Long requesterId) {
+        return userRepository.findVersionById(userId)
+                .map(String::valueOf)
+                .orElse(null);
+    }
+
+    @Transactional
     @Override
     public UserDto update(UserDto userDto, Long userId) {
-        User foundUser = userMapper.toUser(getById(userId));
+        User foundUser = userRepository.findById(userId).orElseThrow(() -> {
+            log.warn(String.format("Не найден пользователь с ID %d.", userId));
+            return new UserNotFoundException(String.format("Не найден пользователь с ID %d.", userId));
+        });
         String email = userDto.getEmail();
 
         if (email != null) {
@@ -80,7 +91,9 @@ public class UserServiceImpl implements UserService {
             userDto.setName(foundUser.getName());
         }
 
-        userRepository.save(userMapper.toUser(userDto));
+        foundUser.setName(userDto.getName());
+        foundUser.setEmail(userDto.getEmail());
+        userRepository.save(foundUser);
         log.info("Обновлен пользователь {}", userDto);
         return userDto;
     }
@@ -1,9 +1,10 @@
-DROP TABLE IF EXISTS users, items, requests, bookings, comments CASCADE;
+DROP TABLE IF EXISTS users, items, requests, bookings, comments, item_stats, item_bookings, idempotency_keys CASCADE;
 
 CREATE TABLE IF NOT EXISTS users (
     id BIGINT GENERATED ALWAYS AS IDENTITY NOT NULL,
     name VARCHAR(255) NOT NULL,
     email VARCHAR(512) NOT NULL,
+    version BIGINT DEFAULT 0 NOT NULL,
     CONSTRAINT users_pk PRIMARY KEY (id),
     CONSTRAINT email_uq UNIQUE (email)
 );
@@ -24,6 +25,8 @@ CREATE TABLE IF NOT EXISTS items (
     is_available BOOL NOT NULL,
     owner_id BIGINT NOT NULL,
     request_id BIGINT,
+    comments_count BIGINT DEFAULT 0 NOT NULL,
+    version BIGINT DEFAULT 0 NOT NULL,
     CONSTRAINT items_pk PRIMARY KEY (id),
     CONSTRAINT owner_id_fk FOREIGN KEY (owner_id) REFERENCES users (id) ON DELETE CASCADE,
     CONSTRAINT request_id_fk FOREIGN KEY (request_id) REFERENCES requests (id) ON DELETE CASCADE
@@ -36,6 +39,8 @@ CREATE TABLE IF NOT EXISTS bookings (
     item_id BIGINT NOT NULL,
     booker_id BIGINT NOT NULL,
     status VARCHAR(255) NOT NULL,
+    version BIGINT DEFAULT 0 NOT NULL,
+    created_date TIMESTAMP WITHOUT TIME ZONE DEFAULT CURRENT_TIMESTAMP NOT NULL,
     CONSTRAINT bookings_pk PRIMARY KEY (id),
     CONSTRAINT item_id_fk FOREIGN KEY (item_id) REFERENCES items (id) ON DELETE CASCADE,
     CONSTRAINT booker_id_fk FOREIGN KEY (booker_id) REFERENCES users (id) ON DELETE CASCADE
@@ -50,4 +55,47 @@ CREATE TABLE IF NOT EXISTS comments (
     CONSTRAINT pk_comments PRIMARY KEY (id),
     CONSTRAINT item_id_comments_fk FOREIGN KEY (item_id) REFERENCES items (id) ON DELETE CASCADE,
     CONSTRAINT author_id_comments_fk FOREIGN KEY (author_id) REFERENCES users (id) ON DELETE CASCADE
-);
\ No newline at end of file
+);
+
+CREATE TABLE IF NOT EXISTS item_stats (
+    item_id BIGINT NOT NULL,
+    approved_bookings BIGINT DEFAULT 0 NOT NULL,
+    recent_bookings BIGINT DEFAULT 0 NOT NULL,
+    comments_count BIGINT DEFAULT 0 NOT NULL,
+    score BIGINT DEFAULT 0 NOT NULL,
+    CONSTRAINT item_stats_pk PRIMARY KEY (item_id),
+    CONSTRAINT item_id_item_stats_fk FOREIGN KEY (item_id) REFERENCES items (id) ON DELETE CASCADE
+);
+
+CREATE TABLE IF NOT EXISTS item_bookings (
+    item_id BIGINT NOT NULL,
+    last_booking_id BIGINT,
+    next_booking_id BIGINT,
+    next_start_date TIMESTAMP WITHOUT TIME ZONE,
+    CONSTRAINT item_bookings_pk PRIMARY KEY (item_id),
+    CONSTRAINT item_id_item_bookings_fk FOREIGN KEY (item_id) REFERENCES items (id) ON DELETE CASCADE,
+    CONSTRAINT last_booking_id_fk FOREIGN KEY (last_booking_id) REFERENCES bookings (id) ON DELETE SET NULL,
+    CONSTRAINT next_booking_id_fk FOREIGN KEY (next_booking_id) REFERENCES bookings (id) ON DELETE SET NULL
+);
+
+CREATE TABLE IF NOT EXISTS idempotency_keys (
+    user_id BIGINT NOT NULL,
+    operation VARCHAR(255) NOT NULL,
+    idempotency_key VARCHAR(255) NOT NULL,
+    request_hash VARCHAR(64) NOT NULL,
+    lease_id VARCHAR(36) NOT NULL,
+    lease_expires_at TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+    status INTEGER,
+    response TEXT,
+    expires_at TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+    CONSTRAINT idempotency_keys_pk PRIMARY KEY (user_id, operation, idempotency_key)
+);
+
+CREATE INDEX IF NOT EXISTS comments_item_id_created_date_idx ON comments (item_id, created_date, id);
+CREATE INDEX IF NOT EXISTS bookings_item_id_start_date_end_date_idx ON bookings (item_id, start_date, end_date);
+CREATE INDEX IF NOT EXISTS item_stats_score_item_id_idx ON item_stats (score, item_id);
+CREATE INDEX IF NOT EXISTS items_owner_id_idx ON items (owner_id);
+CREATE INDEX IF NOT EXISTS bookings_booker_id_start_date_idx ON bookings (booker_id, start_date DESC, id DESC);
+CREATE INDEX IF NOT EXISTS bookings_item_id_status_start_date_idx ON bookings (item_id, status, start_date DESC, id DESC);
+CREATE INDEX IF NOT EXISTS item_bookings_next_start_date_idx ON item_bookings (next_start_date);
+CREATE INDEX IF NOT EXISTS idempotency_keys_expires_at_idx ON idempotency_keys (expires_at);
\ No newline at end of file
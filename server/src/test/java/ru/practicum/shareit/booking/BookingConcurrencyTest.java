@@ -0,0 +1,103 @@
+package ru.practicum.shareit.booking;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import ru.practicum.shareit.booking.dto.BookingShortDto;
+import ru.practicum.shareit.booking.exception.BookingConflictException;
+import ru.practicum.shareit.item.ItemController;
+import ru.practicum.shareit.item.dto.ItemShortDto;
+import ru.practicum.shareit.user.UserController;
+import ru.practicum.shareit.user.dto.UserDto;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@Slf4j
+@SpringBootTest
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class BookingConcurrencyTest {
+    private static final int ITEMS = 8;
+    private static final int REQUESTS_PER_ITEM = 32;
+
+    @Autowired
+    private BookingController bookingController;
+    @Autowired
+    private ItemController itemController;
+    @Autowired
+    private UserController userController;
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Test
+    void create_shouldNotDoubleBookUnderConcurrency() throws Exception {
+        UserDto owner = userController.create(UserDto.builder().name("owner").email("owner@email.com").build());
+        List<Long> itemIds = new ArrayList<>();
+        List<Long> bookerIds = new ArrayList<>();
+
+        for (int i = 0; i < ITEMS; i++) {
+            itemIds.add(itemController.create(owner.getId(), ItemShortDto.builder()
+                    .name("item " + i)
+                    .description("description")
+                    .available(true).build()).getId());
+        }
+
+        for (int i = 0; i < REQUESTS_PER_ITEM; i++) {
+            bookerIds.add(userController.create(UserDto.builder()
+                    .name("booker " + i)
+                    .email("booker" + i + "@email.com").build()).getId());
+        }
+
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        ExecutorService executor = Executors.newFixedThreadPool(32);
+        CountDownLatch startLatch = new CountDownLatch(1);
+        AtomicInteger created = new AtomicInteger();
+        AtomicInteger conflicts = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+
+        for (Long itemId : itemIds) {
+            for (int i = 0; i < REQUESTS_PER_ITEM; i++) {
+                Long bookerId = bookerIds.get(i);
+                LocalDateTime bookingStart = start.plusHours(i % 4);
+
+                futures.add(executor.submit(() -> {
+                    startLatch.await();
+                    try {
+                        bookingController.create(bookerId, BookingShortDto.builder()
+                                .start(bookingStart)
+                                .end(bookingStart.plusHours(8))
+                                .itemId(itemId).build());
+                        created.incrementAndGet();
+                    } catch (BookingConflictException e) {
+                        conflicts.incrementAndGet();
+                    }
+                    return null;
+                }));
+            }
+        }
+
+        long startTime = System.nanoTime();
+        startLatch.countDown();
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
+        executor.shutdown();
+
+        log.info("Обработано {} запросов на бронирование за {} мс ({} запросов/с).", futures.size(), elapsedMillis,
+                futures.size() * 1000L / Math.max(1, elapsedMillis));
+        assertEquals(ITEMS, created.get());
+        assertEquals(ITEMS * (REQUESTS_PER_ITEM - 1), conflicts.get());
+        for (Long itemId : itemIds) {
+            assertEquals(1, bookingRepository.findIntervalsByItemIdAndStatusInAndEndAfter(itemId,
+                    List.of(Status.WAITING, Status.APPROVED), LocalDateTime.now()).size());
+        }
+    }
+}
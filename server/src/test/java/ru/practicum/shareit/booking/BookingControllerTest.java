@@ -1,13 +1,19 @@
 package ru.practicum.shareit.booking;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.annotation.DirtiesContext;
+import ru.practicum.shareit.booking.dto.BookingBatchDto;
+import ru.practicum.shareit.booking.dto.BookingBatchResultDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingShortDto;
+import ru.practicum.shareit.booking.dto.ItemUtilizationDto;
+import ru.practicum.shareit.booking.exception.BookingConflictException;
 import ru.practicum.shareit.booking.exception.BookingNotFoundException;
+import ru.practicum.shareit.booking.expiry.WaitingBookingSweeper;
 import ru.practicum.shareit.item.ItemController;
 import ru.practicum.shareit.item.dto.ItemShortDto;
 import ru.practicum.shareit.item.exceptions.ItemNotFoundException;
@@ -16,9 +22,13 @@ import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.exception.UserNotFoundException;
 
 import javax.validation.ValidationException;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 @SpringBootTest
@@ -30,6 +40,10 @@ class BookingControllerTest {
     private UserController userController;
     @Autowired
     private ItemController itemController;
+    @Autowired
+    private WaitingBookingSweeper waitingBookingSweeper;
+    @Autowired
+    private MeterRegistry meterRegistry;
     private ItemShortDto itemShortDto;
     private UserDto userDto;
     private UserDto userDto1;
@@ -55,7 +69,7 @@ class BookingControllerTest {
 
         bookingShortDto = BookingShortDto.builder()
                 .start(LocalDateTime.of(2022, 10, 24, 12, 30))
-                .end(LocalDateTime.of(2023, 11, 10, 13, 0))
+                .end(LocalDateTime.of(2099, 11, 10, 13, 0))
                 .itemId(1L).build();
     }
 
@@ -86,6 +100,28 @@ class BookingControllerTest {
         assertThrows(BookingNotFoundException.class, () -> bookingController.create(1L, bookingShortDto));
     }
 
+    @Test
+    void create_shouldReturnExceptionWhenPeriodOverlaps() {
+        userController.create(userDto);
+        itemController.create(1L, itemShortDto);
+        UserDto user1 = userController.create(userDto1);
+        UserDto user2 = userController.create(userDto1.toBuilder().email("user2@email.com").build());
+        BookingDto booking = bookingController.create(user1.getId(), bookingShortDto);
+
+        assertThrows(BookingConflictException.class, () -> bookingController.create(user2.getId(),
+                BookingShortDto.builder()
+                        .start(bookingShortDto.getStart().plusDays(1))
+                        .end(bookingShortDto.getEnd().plusDays(1))
+                        .itemId(1L).build()));
+        bookingController.create(user2.getId(), BookingShortDto.builder()
+                .start(bookingShortDto.getEnd())
+                .end(bookingShortDto.getEnd().plusDays(1))
+                .itemId(1L).build());
+
+        bookingController.updateBookingStatus(1L, booking.getId(), false);
+        assertEquals(Status.WAITING, bookingController.create(user2.getId(), bookingShortDto).getStatus());
+    }
+
     @Test
     void create_shouldReturnExceptionWhenUnavailableItem() {
         UserDto user = userController.create(userDto);
@@ -139,6 +175,132 @@ class BookingControllerTest {
         assertThrows(ValidationException.class, () -> bookingController.updateBookingStatus(1L, 1L, true));
     }
 
+    @Test
+    void updateBookingStatus_shouldReturnExceptionWhenNotOwner() {
+        UserDto user = userController.create(userDto);
+        itemController.create(user.getId(), itemShortDto);
+        UserDto user1 = userController.create(userDto1);
+        BookingDto booking = bookingController.create(user1.getId(), bookingShortDto);
+        assertThrows(BookingNotFoundException.class,
+                () -> bookingController.updateBookingStatus(user1.getId(), booking.getId(), true));
+        bookingController.updateBookingStatus(user.getId(), booking.getId(), false);
+        assertThrows(ValidationException.class,
+                () -> bookingController.updateBookingStatus(user.getId(), booking.getId(), true));
+        assertEquals(Status.REJECTED, bookingController.getById(user1.getId(), booking.getId()).getStatus());
+    }
+
+    @Test
+    void updateBookingStatuses_shouldReturnOutcomePerId() {
+        UserDto owner = userController.create(userDto);
+        itemController.create(owner.getId(), itemShortDto);
+        UserDto booker = userController.create(userDto1);
+        BookingDto first = bookingController.create(booker.getId(), bookingShortDto);
+        BookingDto second = bookingController.create(booker.getId(), BookingShortDto.builder()
+                .start(bookingShortDto.getEnd())
+                .end(bookingShortDto.getEnd().plusDays(1))
+                .itemId(1L).build());
+        bookingController.updateBookingStatus(owner.getId(), second.getId(), false);
+
+        List<BookingBatchResultDto> results = bookingController.updateBookingStatuses(owner.getId(),
+                new BookingBatchDto(List.of(first.getId(), second.getId(), 99L), true));
+
+        assertEquals(List.of(new BookingBatchResultDto(first.getId(), BatchOutcome.UPDATED),
+                new BookingBatchResultDto(second.getId(), BatchOutcome.ALREADY_DECIDED),
+                new BookingBatchResultDto(99L, BatchOutcome.NOT_FOUND)), results);
+        assertEquals(List.of(new BookingBatchResultDto(first.getId(), BatchOutcome.FORBIDDEN)),
+                bookingController.updateBookingStatuses(booker.getId(), new BookingBatchDto(List.of(first.getId()), false)));
+        assertEquals(Status.APPROVED, bookingController.getById(booker.getId(), first.getId()).getStatus());
+        assertEquals(Status.REJECTED, bookingController.getById(booker.getId(), second.getId()).getStatus());
+    }
+
+    @Test
+    void export_shouldStreamOwnerBookings() throws Exception {
+        UserDto owner = userController.create(userDto);
+        itemController.create(owner.getId(), itemShortDto.toBuilder().name("drill, cordless").build());
+        UserDto booker = userController.create(userDto1);
+        BookingDto booking = bookingController.create(booker.getId(), bookingShortDto);
+
+        ByteArrayOutputStream csv = new ByteArrayOutputStream();
+        bookingController.export(owner.getId(), ExportFormat.CSV).getBody().writeTo(csv);
+        assertEquals("id,start,end,status,item_id,item_name,booker_id\n" +
+                        String.format("%d,%s,%s,WAITING,1,\"drill, cordless\",%d\n", booking.getId(),
+                                bookingShortDto.getStart(), bookingShortDto.getEnd(), booker.getId()),
+                csv.toString(StandardCharsets.UTF_8));
+
+        ByteArrayOutputStream ndjson = new ByteArrayOutputStream();
+        bookingController.export(owner.getId(), ExportFormat.NDJSON).getBody().writeTo(ndjson);
+        assertEquals(1, ndjson.toString(StandardCharsets.UTF_8).lines().count());
+
+        ByteArrayOutputStream empty = new ByteArrayOutputStream();
+        bookingController.export(booker.getId(), ExportFormat.NDJSON).getBody().writeTo(empty);
+        assertEquals(0, empty.size());
+        assertThrows(UserNotFoundException.class, () -> bookingController.export(99L, ExportFormat.CSV));
+    }
+
+    @Test
+    void sweep_shouldExpireStaleWaitingBookings() {
+        UserDto owner = userController.create(userDto);
+        itemController.create(owner.getId(), itemShortDto);
+        itemController.create(owner.getId(), itemShortDto);
+        UserDto booker = userController.create(userDto1);
+        BookingDto stale = bookingController.create(booker.getId(), bookingShortDto);
+        BookingDto future = bookingController.create(booker.getId(), BookingShortDto.builder()
+                .start(LocalDateTime.now().plusDays(1))
+                .end(LocalDateTime.now().plusDays(2))
+                .itemId(2L).build());
+
+        waitingBookingSweeper.sweep();
+        assertEquals(Status.EXPIRED, bookingController.getById(booker.getId(), stale.getId()).getStatus());
+        assertEquals(Status.WAITING, bookingController.getById(booker.getId(), future.getId()).getStatus());
+        assertEquals(1, bookingController.getAllBookingsByOwner(owner.getId(), State.FUTURE, 0, 10).size());
+        assertEquals(1, bookingController.getAllBookingsByOwner(owner.getId(), State.WAITING, 0, 10).size());
+        assertThrows(ValidationException.class,
+                () -> bookingController.updateBookingStatus(owner.getId(), stale.getId(), true));
+        bookingController.create(booker.getId(), bookingShortDto);
+    }
+
+    @Test
+    void getOwnerStats_shouldRefreshAfterStatusChange() {
+        UserDto owner = userController.create(userDto);
+        itemController.create(owner.getId(), itemShortDto);
+        UserDto booker = userController.create(userDto1);
+        BookingDto booking = bookingController.create(booker.getId(), bookingShortDto);
+        LocalDateTime from = LocalDateTime.of(2022, 10, 15, 0, 0);
+        LocalDateTime to = LocalDateTime.of(2022, 12, 15, 0, 0);
+
+        ItemUtilizationDto waiting = bookingController.getOwnerStats(owner.getId(), from, to).get(0);
+        assertEquals(1, waiting.getBookings());
+        assertEquals(0, waiting.getBookedDays());
+        assertNull(waiting.getApprovalRate());
+
+        bookingController.updateBookingStatus(owner.getId(), booking.getId(), true);
+        ItemUtilizationDto approved = bookingController.getOwnerStats(owner.getId(), from, to).get(0);
+        assertEquals(51.5, approved.getBookedDays(), 0.05);
+        assertEquals(51.479 / 61, approved.getOccupancy(), 0.001);
+        assertEquals(1.0, approved.getApprovalRate());
+
+        ItemUtilizationDto later = bookingController.getOwnerStats(owner.getId(), LocalDateTime.of(2023, 1, 1, 0, 0),
+                LocalDateTime.of(2023, 1, 31, 0, 0)).get(0);
+        assertEquals(0, later.getBookings());
+        assertEquals(1.0, later.getOccupancy(), 0.001);
+        assertEquals(0, bookingController.getOwnerStats(booker.getId(), from, to).size());
+        assertThrows(ValidationException.class, () -> bookingController.getOwnerStats(owner.getId(), to, from));
+    }
+
+    @Test
+    void getOwnerStats_shouldCacheOnlyWholeMonths() {
+        UserDto owner = userController.create(userDto);
+        itemController.create(owner.getId(), itemShortDto);
+
+        bookingController.getOwnerStats(owner.getId(), LocalDateTime.of(2022, 10, 15, 0, 0),
+                LocalDateTime.of(2022, 12, 15, 0, 0));
+        bookingController.getOwnerStats(owner.getId(), LocalDateTime.of(2022, 10, 16, 8, 0),
+                LocalDateTime.of(2022, 12, 14, 8, 0));
+
+        assertEquals(1, cacheGets("miss"));
+        assertEquals(1, cacheGets("hit"));
+    }
+
     @Test
     void getAll_shouldReturnValidListSize() {
         UserDto user = userController.create(userDto);
@@ -179,4 +341,12 @@ class BookingControllerTest {
         bookingController.create(user1.getId(), bookingShortDto);
         assertThrows(BookingNotFoundException.class, () -> bookingController.getById(1L, 10L));
     }
+
+    private double cacheGets(String result) {
+        return meterRegistry.get("cache.gets")
+                .tag("cache", "ownerUtilization")
+                .tag("result", result)
+                .functionCounter()
+                .count();
+    }
 }
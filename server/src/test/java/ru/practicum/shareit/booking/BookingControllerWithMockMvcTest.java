@@ -6,25 +6,33 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.practicum.shareit.booking.dto.BookerDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingEventDto;
+import ru.practicum.shareit.booking.dto.BookingItemDto;
 import ru.practicum.shareit.booking.dto.BookingShortDto;
 import ru.practicum.shareit.booking.exception.BadRequestException;
 import ru.practicum.shareit.booking.service.BookingService;
-import ru.practicum.shareit.item.ItemMapper;
 import ru.practicum.shareit.item.dto.ItemDto;
-import ru.practicum.shareit.user.UserMapper;
 import ru.practicum.shareit.user.dto.UserDto;
 
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.List;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 import static ru.practicum.shareit.booking.Status.APPROVED;
 
@@ -40,8 +48,6 @@ class BookingControllerWithMockMvcTest {
     private ItemDto itemDto;
     private BookingDto bookingDto;
     private BookingShortDto bookingShortDto;
-    private UserMapper userMapper = new UserMapper();
-    private ItemMapper itemMapper = new ItemMapper();
 
     @BeforeEach
     void init() {
@@ -60,8 +66,8 @@ class BookingControllerWithMockMvcTest {
                 .id(1L)
                 .start(LocalDateTime.now().plusMinutes(1))
                 .end(LocalDateTime.now().plusDays(2))
-                .booker(userMapper.toUser(userDto))
-                .item(itemMapper.toItem(itemDto)).build();
+                .booker(new BookerDto(userDto.getId()))
+                .item(new BookingItemDto(itemDto.getId(), itemDto.getName())).build();
 
         bookingShortDto = BookingShortDto.builder()
                 .id(1L)
@@ -85,6 +91,42 @@ class BookingControllerWithMockMvcTest {
                 .andExpect(content().json(mapper.writeValueAsString(bookingDto)));
     }
 
+    @Test
+    void subscribe_shouldStreamBookingEvents() throws Exception {
+        SseEmitter emitter = new SseEmitter();
+        when(bookingService.subscribe(anyLong()))
+                .thenReturn(emitter);
+        MvcResult result = mvc.perform(get("/bookings/stream")
+                        .header("X-Sharer-User-Id", 1L)
+                        .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        emitter.send(SseEmitter.event().id("1").name("approved").data(new BookingEventDto(1L, 1L, APPROVED)));
+        emitter.complete();
+
+        mvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().string("id:1\nevent:approved\n" +
+                        "data:{\"bookingId\":1,\"itemId\":1,\"status\":\"APPROVED\"}\n\n"));
+    }
+
+    @Test
+    void export_shouldStreamWithExportTimeout() throws Exception {
+        when(bookingService.export(anyLong(), any()))
+                .thenReturn(outputStream -> outputStream.write("id\n1\n".getBytes(StandardCharsets.UTF_8)));
+        MvcResult result = mvc.perform(get("/bookings/export?format=CSV")
+                        .header("X-Sharer-User-Id", 1L))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        assertEquals(Duration.ofHours(2).toMillis(), result.getRequest().getAsyncContext().getTimeout());
+        mvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"bookings.csv\""))
+                .andExpect(content().string("id\n1\n"));
+    }
+
     @Test
     void updateBookingStatus_shouldReturnOk() throws Exception {
         bookingDto.setStatus(APPROVED);
@@ -1,20 +1,29 @@
 package ru.practicum.shareit.booking;
 
+import lombok.extern.slf4j.Slf4j;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.json.JsonTest;
 import org.springframework.boot.test.json.JacksonTester;
 import org.springframework.boot.test.json.JsonContent;
+import ru.practicum.shareit.booking.dto.BookerDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingItemDto;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+@Slf4j
 @JsonTest
 class BookingDtoJsonTest {
     @Autowired
     JacksonTester<BookingDto> json;
+    @Autowired
+    JacksonTester<List<BookingDto>> listJson;
 
     @Test
     void testBookingDto() throws Exception {
@@ -35,4 +44,42 @@ class BookingDtoJsonTest {
         assertThat(result).extractingJsonPathStringValue("$.end")
                 .isEqualTo(LocalDateTime.of(2022, 12, 20, 10, 10, 1).toString());
     }
+
+    @Test
+    void testBookingDtoPage() throws Exception {
+        List<BookingDto> page = new ArrayList<>();
+
+        for (long i = 1; i <= 1000; i++) {
+            page.add(new BookingDto(i, LocalDateTime.of(2022, 12, 12, 10, 10, 1),
+                    LocalDateTime.of(2022, 12, 20, 10, 10, 1), i, "item name " + i, i + 1, Status.WAITING));
+        }
+
+        long startTime = System.nanoTime();
+        JsonContent<List<BookingDto>> result = listJson.write(page);
+        long elapsedMicros = (System.nanoTime() - startTime) / 1000;
+        int bytes = result.getJson().getBytes(StandardCharsets.UTF_8).length;
+
+        log.info("Страница из {} бронирований: {} байт на бронирование, сериализация {} мкс.", page.size(),
+                bytes / page.size(), elapsedMicros);
+        assertThat(result).extractingJsonPathNumberValue("$[0].item.id").isEqualTo(1);
+        assertThat(result).extractingJsonPathStringValue("$[0].item.name").isEqualTo("item name 1");
+        assertThat(result).extractingJsonPathNumberValue("$[0].booker.id").isEqualTo(2);
+        assertThat(result).doesNotHaveJsonPath("$[0].item.owner");
+        assertThat(bytes / page.size()).isLessThan(200);
+    }
+
+    @Test
+    void testBookingDtoSummaries() throws Exception {
+        BookingDto bookingDto = BookingDto.builder()
+                .id(1L)
+                .item(new BookingItemDto(2L, "name"))
+                .booker(new BookerDto(3L))
+                .build();
+
+        JsonContent<BookingDto> result = json.write(bookingDto);
+
+        assertThat(result).extractingJsonPathNumberValue("$.item.id").isEqualTo(2);
+        assertThat(result).extractingJsonPathNumberValue("$.booker.id").isEqualTo(3);
+        assertThat(result).doesNotHaveJsonPath("$.booker.email");
+    }
 }
@@ -4,21 +4,29 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
-import org.springframework.data.domain.PageRequest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
 import org.springframework.test.annotation.DirtiesContext;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingShortDto;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.pointer.ItemBookingPointerUpdater;
 import ru.practicum.shareit.item.ItemRepository;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.pagination.Cursor;
 import ru.practicum.shareit.user.UserRepository;
 import ru.practicum.shareit.user.model.User;
 
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static ru.practicum.shareit.booking.Status.APPROVED;
 import static ru.practicum.shareit.booking.Status.WAITING;
 
 @DataJpaTest
+@Import(ItemBookingPointerUpdater.class)
 @DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
 class BookingRepositoryTest {
     @Autowired
@@ -27,6 +35,10 @@ class BookingRepositoryTest {
     private UserRepository userRepository;
     @Autowired
     private ItemRepository itemRepository;
+    @Autowired
+    private TestEntityManager entityManager;
+    @Autowired
+    private ItemBookingPointerUpdater itemBookingPointerUpdater;
     private User user;
     private Item item;
     private User user2;
@@ -62,7 +74,7 @@ class BookingRepositoryTest {
         itemRepository.save(item);
         userRepository.save(user2);
         bookingRepository.save(booking);
-        assertEquals(1, bookingRepository.findAllByItemOwnerOrderByStartDesc(user, PageRequest.ofSize(10)).size());
+        assertEquals(1, bookingRepository.findBookings(user.getId(), Role.OWNER, State.ALL, LocalDateTime.now(), null, 0, 10).size());
     }
 
     @Test
@@ -71,7 +83,7 @@ class BookingRepositoryTest {
         itemRepository.save(item);
         userRepository.save(user2);
         bookingRepository.save(booking);
-        assertEquals(1, bookingRepository.findAllByBookerOrderByStartDesc(user2, PageRequest.ofSize(10)).size());
+        assertEquals(1, bookingRepository.findBookings(user2.getId(), Role.BOOKER, State.ALL, LocalDateTime.now(), null, 0, 10).size());
     }
 
     @Test
@@ -91,6 +103,95 @@ class BookingRepositoryTest {
         itemRepository.save(item);
         userRepository.save(user2);
         bookingRepository.save(booking);
-        assertEquals(1, bookingRepository.findAllByItemOwnerAndStatusEqualsOrderByStartDesc(user, WAITING, PageRequest.ofSize(10)).size());
+        assertEquals(1, bookingRepository.findBookings(user.getId(), Role.OWNER, State.WAITING, LocalDateTime.now(), null,
+                0, 10).size());
+    }
+
+    @Test
+    void findLastAndNextBookingsTest() {
+        userRepository.save(user);
+        itemRepository.save(item);
+        userRepository.save(user2);
+        booking.setStatus(APPROVED);
+        bookingRepository.save(booking);
+        Booking nextBooking = bookingRepository.save(Booking.builder()
+                .start(LocalDateTime.of(2023, 3, 10, 10, 30))
+                .end(LocalDateTime.of(2023, 3, 20, 10, 30))
+                .item(item)
+                .booker(user2)
+                .status(APPROVED).build());
+        bookingRepository.save(Booking.builder()
+                .start(LocalDateTime.of(2023, 4, 10, 10, 30))
+                .end(LocalDateTime.of(2023, 4, 20, 10, 30))
+                .item(item)
+                .booker(user2)
+                .status(APPROVED).build());
+        itemBookingPointerUpdater.refresh(List.of(item.getId()), LocalDateTime.of(2023, 3, 1, 10, 30));
+        assertEquals(List.of(booking.getId()), bookingRepository.findLastBookings(List.of(item.getId()))
+                .stream().map(BookingShortDto::getId).collect(Collectors.toList()));
+        assertEquals(List.of(nextBooking.getId()), bookingRepository.findNextBookings(List.of(item.getId()))
+                .stream().map(BookingShortDto::getId).collect(Collectors.toList()));
+
+        itemBookingPointerUpdater.refresh(List.of(item.getId()), LocalDateTime.of(2023, 3, 15, 10, 30));
+        assertEquals(List.of(nextBooking.getId()), bookingRepository.findLastBookings(List.of(item.getId()))
+                .stream().map(BookingShortDto::getId).collect(Collectors.toList()));
+    }
+
+    @Test
+    void findAllAfterTest() {
+        userRepository.save(user);
+        itemRepository.save(item);
+        userRepository.save(user2);
+        bookingRepository.save(booking);
+        Booking laterBooking = bookingRepository.save(Booking.builder()
+                .start(LocalDateTime.of(2023, 3, 10, 10, 30))
+                .end(LocalDateTime.of(2023, 3, 20, 10, 30))
+                .item(item)
+                .booker(user2)
+                .status(WAITING).build());
+        LocalDateTime now = LocalDateTime.of(2023, 1, 1, 10, 30);
+
+        List<BookingDto> firstPage = bookingRepository.findBookings(user2.getId(), Role.BOOKER, State.ALL, now, null, 0, 1);
+        assertEquals(List.of(laterBooking.getId()), firstPage.stream().map(BookingDto::getId).collect(Collectors.toList()));
+
+        Cursor cursor = Cursor.of(laterBooking.getStart(), laterBooking.getId());
+        List<BookingDto> secondPage = bookingRepository.findBookings(user.getId(), Role.OWNER, State.FUTURE, now, cursor, 0,
+                10);
+        assertEquals(List.of(booking.getId()), secondPage.stream().map(BookingDto::getId).collect(Collectors.toList()));
+    }
+
+    @Test
+    void updateStatusIfWaitingTest() {
+        userRepository.save(user);
+        itemRepository.save(item);
+        userRepository.save(user2);
+        bookingRepository.save(booking);
+
+        assertEquals(0, bookingRepository.updateStatusIfWaiting(booking.getId(), user2.getId(), APPROVED));
+        assertEquals(1, bookingRepository.updateStatusIfWaiting(booking.getId(), user.getId(), APPROVED));
+        assertEquals(0, bookingRepository.updateStatusIfWaiting(booking.getId(), user.getId(), Status.REJECTED));
+        assertEquals(APPROVED, bookingRepository.findById(booking.getId()).orElseThrow().getStatus());
+    }
+
+    @Test
+    void findBookingsWithOffsetTest() {
+        userRepository.save(user);
+        itemRepository.save(item);
+        userRepository.save(user2);
+        bookingRepository.save(booking);
+        Booking laterBooking = bookingRepository.save(Booking.builder()
+                .start(LocalDateTime.of(2023, 3, 10, 10, 30))
+                .end(LocalDateTime.of(2023, 3, 20, 10, 30))
+                .item(item)
+                .booker(user2)
+                .status(WAITING).build());
+        LocalDateTime now = LocalDateTime.of(2023, 2, 1, 10, 30);
+
+        assertEquals(List.of(booking.getId()), bookingRepository.findBookings(user2.getId(), Role.BOOKER, State.ALL,
+                now, null, 1, 10).stream().map(BookingDto::getId).collect(Collectors.toList()));
+        assertEquals(List.of(laterBooking.getId()), bookingRepository.findBookings(user.getId(), Role.OWNER,
+                State.FUTURE, now, null, 0, 10).stream().map(BookingDto::getId).collect(Collectors.toList()));
+        assertEquals(List.of(booking.getId()), bookingRepository.findBookings(user.getId(), Role.OWNER,
+                State.CURRENT, now, null, 0, 10).stream().map(BookingDto::getId).collect(Collectors.toList()));
     }
 }
@@ -0,0 +1,158 @@
+package ru.practicum.shareit.booking.event;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.practicum.shareit.booking.BookingController;
+import ru.practicum.shareit.booking.Status;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingShortDto;
+import ru.practicum.shareit.item.ItemController;
+import ru.practicum.shareit.item.dto.ItemShortDto;
+import ru.practicum.shareit.user.UserController;
+import ru.practicum.shareit.user.dto.UserDto;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class BookingEventBusTest {
+    private static final long WAIT_MILLIS = 5_000;
+
+    @Autowired
+    private MockMvc mvc;
+    @Autowired
+    private UserController userController;
+    @Autowired
+    private ItemController itemController;
+    @Autowired
+    private BookingController bookingController;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    private UserDto owner;
+    private UserDto booker;
+    private UserDto stranger;
+    private BookingShortDto bookingShortDto;
+
+    @BeforeEach
+    void init() {
+        owner = userController.create(UserDto.builder().name("owner").email("owner@email.com").build());
+        booker = userController.create(UserDto.builder().name("booker").email("booker@email.com").build());
+        stranger = userController.create(UserDto.builder().name("stranger").email("stranger@email.com").build());
+        ItemShortDto item = itemController.create(owner.getId(), ItemShortDto.builder()
+                .name("name")
+                .description("description")
+                .available(true)
+                .build());
+        bookingShortDto = BookingShortDto.builder()
+                .start(LocalDateTime.of(2099, 1, 1, 12, 0))
+                .end(LocalDateTime.of(2099, 1, 2, 12, 0))
+                .itemId(item.getId())
+                .build();
+    }
+
+    @Test
+    void onBookingChanged_shouldReachOnlyBookerAndOwner() throws Exception {
+        MvcResult ownerStream = subscribe(owner.getId());
+        MvcResult bookerStream = subscribe(booker.getId());
+        MvcResult strangerStream = subscribe(stranger.getId());
+
+        BookingDto booking = bookingController.create(booker.getId(), bookingShortDto);
+        String created = "id:" + booking.getId() + "\nevent:created\n";
+        awaitContent(ownerStream, created);
+        awaitContent(bookerStream, created);
+
+        bookingController.updateBookingStatus(owner.getId(), booking.getId(), true);
+        awaitContent(bookerStream, "id:" + booking.getId() + "\nevent:approved\n");
+
+        assertFalse(strangerStream.getResponse().getContentAsString().contains("event:"));
+    }
+
+    @Test
+    void onBookingChanged_shouldPublishOnlyAfterCommit() throws Exception {
+        MvcResult ownerStream = subscribe(owner.getId());
+
+        BookingDto rolledBack = transactionTemplate.execute(status -> {
+            BookingDto booking = bookingController.create(booker.getId(), bookingShortDto);
+            status.setRollbackOnly();
+            return booking;
+        });
+        BookingDto committed = bookingController.create(booker.getId(), bookingShortDto);
+        awaitContent(ownerStream, "id:" + committed.getId() + "\nevent:created\n");
+
+        assertFalse(ownerStream.getResponse().getContentAsString().contains("id:" + rolledBack.getId() + "\n"));
+    }
+
+    @Test
+    void offer_shouldDisconnectSubscriberWhenBufferOverflows() {
+        BookingEventBus bus = new BookingEventBus(Duration.ofMinutes(1), 1, mock(ExecutorService.class));
+        SseEmitter emitter = bus.subscribe(booker.getId());
+
+        bus.onBookingChanged(event(1L));
+        assertEquals(1, bus.getSubscriberCount());
+
+        bus.onBookingChanged(event(2L));
+        assertEquals(0, bus.getSubscriberCount());
+        assertThrows(IllegalStateException.class, () -> emitter.send("late"));
+    }
+
+    @Test
+    void offer_shouldDisconnectSubscriberWhenNoDispatchThreadIsFree() {
+        ExecutorService dispatcher = mock(ExecutorService.class);
+        doThrow(new RejectedExecutionException()).when(dispatcher).execute(any());
+        BookingEventBus bus = new BookingEventBus(Duration.ofMinutes(1), 10, dispatcher);
+        SseEmitter emitter = bus.subscribe(booker.getId());
+
+        bus.onBookingChanged(event(1L));
+
+        assertEquals(0, bus.getSubscriberCount());
+        assertThrows(IllegalStateException.class, () -> emitter.send("late"));
+    }
+
+    private BookingChangedEvent event(Long bookingId) {
+        return new BookingChangedEvent(bookingId, 1L, Status.WAITING, booker.getId(), owner.getId(),
+                bookingShortDto.getStart(), bookingShortDto.getEnd());
+    }
+
+    private MvcResult subscribe(Long userId) throws Exception {
+        return mvc.perform(get("/bookings/stream")
+                        .header("X-Sharer-User-Id", userId)
+                        .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+    }
+
+    private void awaitContent(MvcResult result, String expected) throws Exception {
+        long deadline = System.currentTimeMillis() + WAIT_MILLIS;
+
+        while (!result.getResponse().getContentAsString().contains(expected)
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+
+        assertTrue(result.getResponse().getContentAsString().contains(expected),
+                result.getResponse().getContentAsString());
+    }
+}
@@ -0,0 +1,165 @@
+package ru.practicum.shareit.idempotency;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.item.dto.ItemShortDto;
+import ru.practicum.shareit.user.dto.UserDto;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class IdempotencyTest {
+    @Autowired
+    private MockMvc mvc;
+    @Autowired
+    private ObjectMapper mapper;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void create_shouldReplayResponseForRepeatedKey() throws Exception {
+        mvc.perform(post("/users")
+                        .content(mapper.writeValueAsString(UserDto.builder().name("name").email("user@email.com").build()))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk());
+        String item = mapper.writeValueAsString(ItemShortDto.builder()
+                .name("name")
+                .description("description")
+                .available(true)
+                .build());
+
+        String first = mvc.perform(post("/items")
+                        .header("X-Sharer-User-Id", 1)
+                        .header("Idempotency-Key", "key-1")
+                        .content(item)
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        String retry = mvc.perform(post("/items")
+                        .header("X-Sharer-User-Id", 1)
+                        .header("Idempotency-Key", "key-1")
+                        .content(item)
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Idempotent-Replayed", "true"))
+                .andReturn().getResponse().getContentAsString();
+        assertEquals(first, retry);
+
+        mvc.perform(post("/items")
+                        .header("X-Sharer-User-Id", 1)
+                        .header("Idempotency-Key", "key-2")
+                        .content(item)
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(2));
+        mvc.perform(get("/items").header("X-Sharer-User-Id", 1))
+                .andExpect(jsonPath("$.length()").value(2));
+    }
+
+    @Test
+    void create_shouldReleaseKeyWhenRequestFails() throws Exception {
+        String item = mapper.writeValueAsString(ItemShortDto.builder()
+                .name("name")
+                .description("description")
+                .available(true)
+                .build());
+
+        mvc.perform(post("/items")
+                        .header("X-Sharer-User-Id", 1)
+                        .header("Idempotency-Key", "key-1")
+                        .content(item)
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isNotFound());
+        mvc.perform(post("/users")
+                        .content(mapper.writeValueAsString(UserDto.builder().name("name").email("user@email.com").build()))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk());
+        mvc.perform(post("/items")
+                        .header("X-Sharer-User-Id", 1)
+                        .header("Idempotency-Key", "key-1")
+                        .content(item)
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("Idempotent-Replayed"));
+    }
+
+    @Test
+    void create_shouldRejectRepeatedKeyWithDifferentBody() throws Exception {
+        mvc.perform(post("/users")
+                        .content(mapper.writeValueAsString(UserDto.builder().name("name").email("user@email.com").build()))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk());
+
+        mvc.perform(post("/items")
+                        .header("X-Sharer-User-Id", 1)
+                        .header("Idempotency-Key", "key-1")
+                        .content(mapper.writeValueAsString(ItemShortDto.builder()
+                                .name("name")
+                                .description("description")
+                                .available(true)
+                                .build()))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk());
+        mvc.perform(post("/items")
+                        .header("X-Sharer-User-Id", 1)
+                        .header("Idempotency-Key", "key-1")
+                        .content(mapper.writeValueAsString(ItemShortDto.builder()
+                                .name("other")
+                                .description("description")
+                                .available(true)
+                                .build()))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isUnprocessableEntity())
+                .andExpect(header().doesNotExist("Idempotent-Replayed"));
+        mvc.perform(get("/items").header("X-Sharer-User-Id", 1))
+                .andExpect(jsonPath("$.length()").value(1));
+    }
+
+    @Test
+    void create_shouldTakeOverPendingKeyAfterLeaseExpires() throws Exception {
+        mvc.perform(post("/users")
+                        .content(mapper.writeValueAsString(UserDto.builder().name("name").email("user@email.com").build()))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk());
+        String item = mapper.writeValueAsString(ItemShortDto.builder()
+                .name("name")
+                .description("description")
+                .available(true)
+                .build());
+        LocalDateTime now = LocalDateTime.now();
+        jdbcTemplate.update("insert into idempotency_keys (user_id, operation, idempotency_key, request_hash, " +
+                        "lease_id, lease_expires_at, expires_at) values (?, ?, ?, ?, ?, ?, ?)",
+                1L, "POST /items", "key-1", "hash", "lease", now.minusSeconds(1), now.plusHours(1));
+
+        mvc.perform(post("/items")
+                        .header("X-Sharer-User-Id", 1)
+                        .header("Idempotency-Key", "key-1")
+                        .content(item)
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("Idempotent-Replayed"));
+        mvc.perform(post("/items")
+                        .header("X-Sharer-User-Id", 1)
+                        .header("Idempotency-Key", "key-1")
+                        .content(item)
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Idempotent-Replayed", "true"));
+    }
+}
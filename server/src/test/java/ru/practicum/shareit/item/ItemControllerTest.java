@@ -1,27 +1,44 @@
 package ru.practicum.shareit.item;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
 import org.springframework.test.annotation.DirtiesContext;
 import ru.practicum.shareit.booking.BookingController;
+import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingShortDto;
 import ru.practicum.shareit.booking.exception.BadRequestException;
+import ru.practicum.shareit.item.cache.ItemSearchCache;
 import ru.practicum.shareit.item.comment.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemShortDto;
 import ru.practicum.shareit.item.exceptions.ItemNotFoundException;
+import ru.practicum.shareit.item.exceptions.PreconditionFailedException;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.item.stats.ItemStatsUpdater;
+import ru.practicum.shareit.pagination.Cursor;
 import ru.practicum.shareit.request.ItemRequestController;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.user.UserController;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.exception.UserNotFoundException;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 @SpringBootTest
@@ -35,6 +52,16 @@ class ItemControllerTest {
     private BookingController bookingController;
     @Autowired
     private ItemRequestController itemRequestController;
+    @Autowired
+    private MeterRegistry meterRegistry;
+    @Autowired
+    private ItemSearchCache itemSearchCache;
+    @Autowired
+    private ItemService itemService;
+    @Autowired
+    private ItemStatsUpdater itemStatsUpdater;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
     private ItemShortDto itemShortDto;
     private UserDto userDto;
     private ItemRequestDto itemRequestDto;
@@ -84,7 +111,8 @@ class ItemControllerTest {
                 .description(itemShortDto1.getDescription())
                 .available(itemShortDto1.getAvailable())
                 .requestId(itemShortDto1.getRequestId())
-                .comments(new ArrayList<>()).build();
+                .comments(new ArrayList<>())
+                .commentsCount(0L).build();
         assertEquals(item, itemController.getById(1L, 2L));
     }
 
@@ -112,6 +140,23 @@ class ItemControllerTest {
         assertEquals(item.getDescription(), itemController.getById(1L, 1L).getDescription());
     }
 
+    @Test
+    void update_shouldCheckVersionFromIfMatch() {
+        userController.create(userDto);
+        itemController.create(1L, itemShortDto);
+        assertEquals("0-0-0", itemService.getETag(1L, 1L));
+        assertEquals("0", itemService.getETag(1L, 2L));
+
+        itemController.update(1L, "\"0-0-0\"", itemShortDto.toBuilder().name("new name").build(), 1L);
+        assertEquals("1-0-0", itemService.getETag(1L, 1L));
+        assertEquals("new name", itemController.getById(1L, 1L).getName());
+
+        assertThrows(PreconditionFailedException.class,
+                () -> itemController.update(1L, "W/\"0\"", itemShortDto, 1L));
+        assertEquals("new name", itemController.getById(1L, 1L).getName());
+        assertNull(itemService.getETag(2L, 1L));
+    }
+
     @Test
     void update_shouldReturnExceptionWhenInvalidUserId() {
         assertThrows(UserNotFoundException.class, () -> itemController.update(1L, itemShortDto, 1L));
@@ -199,4 +244,177 @@ class ItemControllerTest {
     void getAllItemsByUser_shouldReturnExceptionWhenWhenInvalidUserId() {
         assertThrows(UserNotFoundException.class, () -> itemController.getAllItemsByUser(1L, 0, 10));
     }
+
+    @Test
+    void getAllItemsByUserAfter_shouldReturnPagesByCursor() {
+        userController.create(userDto);
+        itemController.create(1L, itemShortDto);
+        itemController.create(1L, itemShortDto.toBuilder().name("second").build());
+        itemController.create(1L, itemShortDto.toBuilder().name("third").build());
+
+        ResponseEntity<List<ItemDto>> firstPage = itemController.getAllItemsByUserAfter(1L, "", 2);
+        assertEquals(2, firstPage.getBody().size());
+
+        String cursor = firstPage.getHeaders().getFirst(Cursor.NEXT_CURSOR_HEADER);
+        ResponseEntity<List<ItemDto>> secondPage = itemController.getAllItemsByUserAfter(1L, cursor, 2);
+        assertEquals(1, secondPage.getBody().size());
+        assertEquals("third", secondPage.getBody().get(0).getName());
+        assertNull(secondPage.getHeaders().getFirst(Cursor.NEXT_CURSOR_HEADER));
+    }
+
+    @Test
+    void getById_shouldReflectChangesAfterCaching() {
+        userController.create(userDto);
+        ItemShortDto item = itemController.create(1L, itemShortDto);
+        UserDto user2 = userController.create(userDto.toBuilder().email("email2@mail.com").build());
+
+        assertNull(itemController.getById(item.getId(), 1L).getNextBooking());
+        assertNull(itemController.getById(item.getId(), 1L).getNextBooking());
+        assertEquals(1.0, meterRegistry.get("cache.gets")
+                .tag("cache", "items")
+                .tag("result", "hit")
+                .functionCounter()
+                .count());
+
+        bookingController.create(user2.getId(), BookingShortDto.builder()
+                .start(LocalDateTime.now().plusDays(1))
+                .end(LocalDateTime.now().plusDays(2))
+                .itemId(item.getId()).build());
+        bookingController.updateBookingStatus(1L, 1L, true);
+        assertNotNull(itemController.getById(item.getId(), 1L).getNextBooking());
+        assertNull(itemController.getById(item.getId(), user2.getId()).getNextBooking());
+
+        itemController.update(1L, itemShortDto.toBuilder().name("new name").build(), item.getId());
+        assertEquals("new name", itemController.getById(item.getId(), user2.getId()).getName());
+    }
+
+    @Test
+    void getComments_shouldReturnPagesByCursorAndCount() {
+        userController.create(userDto);
+        ItemShortDto item = itemController.create(1L, itemShortDto);
+        UserDto user2 = userController.create(userDto.toBuilder().email("email2@mail.com").build());
+        bookingController.create(user2.getId(), BookingShortDto.builder()
+                .start(LocalDateTime.of(2022, 10, 20, 12, 15))
+                .end(LocalDateTime.of(2022, 10, 27, 12, 15))
+                .itemId(item.getId()).build());
+        bookingController.updateBookingStatus(1L, 1L, true);
+        itemController.addComment(user2.getId(), comment, item.getId());
+        itemController.addComment(user2.getId(), CommentDto.builder().text("second comment").build(), item.getId());
+
+        assertEquals(2L, itemController.getById(item.getId(), 1L).getCommentsCount());
+
+        ResponseEntity<List<CommentDto>> firstPage = itemController.getComments(1L, item.getId(), "", 1);
+        assertEquals("second comment", firstPage.getBody().get(0).getText());
+
+        String cursor = firstPage.getHeaders().getFirst(Cursor.NEXT_CURSOR_HEADER);
+        ResponseEntity<List<CommentDto>> secondPage = itemController.getComments(1L, item.getId(), cursor, 1);
+        assertEquals("first comment", secondPage.getBody().get(0).getText());
+    }
+
+    @Test
+    void importItems_shouldReturnResultPerLine() throws IOException {
+        userController.create(userDto);
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setContent(("{\"name\":\"drill\",\"description\":\"new drill\",\"available\":true}\n" +
+                "{\"name\":\"\",\"description\":\"no name\",\"available\":true}\n" +
+                "\n" +
+                "not json\n" +
+                "{\"name\":\"saw\",\"description\":\"saw\",\"available\":true,\"requestId\":99}\n" +
+                "{\"name\":\"hammer\",\"description\":\"hammer\",\"available\":false}\n")
+                .getBytes(StandardCharsets.UTF_8));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        itemController.importItems(1L, request, response);
+
+        String[] results = response.getContentAsString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(5, results.length);
+        assertEquals("{\"line\":1,\"id\":1}", results[0]);
+        assertEquals("{\"line\":4,\"error\":\"Некорректная строка JSON.\"}", results[2]);
+        assertEquals("{\"line\":6,\"id\":2}", results[4]);
+        assertEquals(2, itemController.getAllItemsByUser(1L, 0, 10).size());
+    }
+
+    @Test
+    void search_shouldNotServeStalePagesAfterUpdate() {
+        userController.create(userDto);
+        ItemShortDto item = itemController.create(1L, itemShortDto);
+        assertEquals(1, itemController.search("Desc", 0, 10).size());
+        assertEquals(1, itemController.search(" desc ", 0, 10).size());
+
+        itemController.update(1L, itemShortDto.toBuilder().description("updated").available(false).build(), item.getId());
+        assertEquals(0, itemController.search("desc", 0, 10).size());
+
+        ItemSearchCache.QueryStats stats = itemSearchCache.hotQueries(10).get(0);
+        assertEquals("desc", stats.getQuery());
+        assertEquals(1, stats.getHits());
+        assertEquals(2, stats.getMisses());
+    }
+
+    @Test
+    void search_shouldQueryWithNormalizedText() {
+        userController.create(userDto);
+        itemController.create(1L, itemShortDto.toBuilder().name("cordless drill").build());
+        assertEquals(1, itemController.search("  Cordless   drill ", 0, 10).size());
+        assertEquals(1, itemController.search("cordless drill", 0, 10).size());
+    }
+
+    @Test
+    void search_shouldSortByPopularity() {
+        userController.create(userDto);
+        ItemShortDto first = itemController.create(1L, itemShortDto);
+        ItemShortDto second = itemController.create(1L, itemShortDto.toBuilder().name("second").build());
+        UserDto user2 = userController.create(userDto.toBuilder().email("email2@mail.com").build());
+        BookingDto booking = bookingController.create(user2.getId(), BookingShortDto.builder()
+                .start(LocalDateTime.now().plusDays(1))
+                .end(LocalDateTime.now().plusDays(2))
+                .itemId(second.getId()).build());
+        bookingController.updateBookingStatus(1L, booking.getId(), true);
+        itemStatsUpdater.flush();
+
+        assertEquals(List.of(second.getId(), first.getId()), itemController.search("desc", ItemSort.POPULARITY, 0, 10)
+                .stream().map(ItemShortDto::getId).collect(Collectors.toList()));
+        assertEquals(List.of(first.getId(), second.getId()), itemController.search("desc", ItemSort.DEFAULT, 0, 10)
+                .stream().map(ItemShortDto::getId).collect(Collectors.toList()));
+        assertEquals(second.getId(), itemController.getAllItemsByUser(1L, ItemSort.POPULARITY, 0, 10).get(0).getId());
+
+        itemStatsUpdater.rebuild();
+        assertEquals(List.of(second.getId(), first.getId()), itemController.search("desc", ItemSort.POPULARITY, 0, 10)
+                .stream().map(ItemShortDto::getId).collect(Collectors.toList()));
+    }
+
+    @Test
+    void flush_shouldCountOnlyRecentBookingsLikeRebuild() {
+        userController.create(userDto);
+        ItemShortDto item = itemController.create(1L, itemShortDto);
+        UserDto user2 = userController.create(userDto.toBuilder().email("email2@mail.com").build());
+        BookingDto booking = bookingController.create(user2.getId(), BookingShortDto.builder()
+                .start(LocalDateTime.of(2022, 10, 24, 12, 30))
+                .end(LocalDateTime.of(2022, 11, 10, 13, 0))
+                .itemId(item.getId()).build());
+        bookingController.updateBookingStatus(1L, booking.getId(), true);
+        itemStatsUpdater.flush();
+
+        String stats = "select recent_bookings from item_stats where item_id = ?";
+        assertEquals(0, jdbcTemplate.queryForObject(stats, Long.class, item.getId()));
+        itemStatsUpdater.rebuild();
+        assertEquals(0, jdbcTemplate.queryForObject(stats, Long.class, item.getId()));
+    }
+
+    @Test
+    void rebuild_shouldNotCountPendingApprovalTwice() {
+        userController.create(userDto);
+        ItemShortDto item = itemController.create(1L, itemShortDto);
+        UserDto user2 = userController.create(userDto.toBuilder().email("email2@mail.com").build());
+        BookingDto booking = bookingController.create(user2.getId(), BookingShortDto.builder()
+                .start(LocalDateTime.of(2022, 10, 24, 12, 30))
+                .end(LocalDateTime.of(2022, 11, 10, 13, 0))
+                .itemId(item.getId()).build());
+        bookingController.updateBookingStatus(1L, booking.getId(), true);
+
+        itemStatsUpdater.rebuild();
+        itemStatsUpdater.flush();
+
+        assertEquals(1, jdbcTemplate.queryForObject("select approved_bookings from item_stats where item_id = ?",
+                Long.class, item.getId()));
+    }
 }
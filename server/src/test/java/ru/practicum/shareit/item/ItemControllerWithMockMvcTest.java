@@ -6,6 +6,7 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import ru.practicum.shareit.item.comment.dto.CommentDto;
@@ -17,9 +18,12 @@ import java.nio.charset.StandardCharsets;
 import java.util.List;
 
 import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(controllers = ItemController.class)
@@ -79,6 +83,43 @@ class ItemControllerWithMockMvcTest {
                 .andExpect(content().json(mapper.writeValueAsString(itemDto)));
     }
 
+    @Test
+    void getById_shouldReturnNotModifiedWhenETagMatches() throws Exception {
+        when(itemService.getETag(anyLong(), anyLong()))
+                .thenReturn("2-0-0");
+        when(itemService.getById(anyLong(), anyLong()))
+                .thenReturn(itemDto);
+        mvc.perform(get("/items/1")
+                        .header("X-Sharer-User-Id", 1L)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"2-0-0\""));
+        mvc.perform(get("/items/1")
+                        .header("X-Sharer-User-Id", 1L)
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"2-0-0\"")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+        verify(itemService).getById(1L, 1L);
+    }
+
+    @Test
+    void update_shouldPassVersionFromIfMatch() throws Exception {
+        when(itemService.update(anyLong(), any(), anyLong(), anyLong()))
+                .thenReturn(itemShortDto);
+        mvc.perform(patch("/items/1")
+                        .content(mapper.writeValueAsString(itemShortDto))
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header("X-Sharer-User-Id", 1L)
+                        .header(HttpHeaders.IF_MATCH, "\"3-0-0\"")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(content().json(mapper.writeValueAsString(itemShortDto)));
+        verify(itemService).update(eq(1L), any(), eq(1L), eq(3L));
+        verify(itemService, never()).update(anyLong(), any(), anyLong());
+    }
+
     @Test
     void create() throws Exception {
         when(itemService.create(anyLong(), any()))
@@ -2,11 +2,18 @@ package ru.practicum.shareit.item;
 
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.hibernate.Session;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
 import org.springframework.data.domain.Pageable;
 import org.springframework.test.annotation.DirtiesContext;
+import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.Status;
+import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.item.comment.CommentRepository;
 import ru.practicum.shareit.item.comment.model.Comment;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemShortDto;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.request.ItemRequestRepository;
 import ru.practicum.shareit.request.model.ItemRequest;
@@ -14,7 +21,9 @@ import ru.practicum.shareit.user.UserRepository;
 import ru.practicum.shareit.user.model.User;
 
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
+import java.util.Set;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
@@ -34,6 +43,12 @@ class ItemRepositoryTest {
     @Autowired
     private CommentRepository commentRepository;
 
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
 
     @Test
     void searchTest() {
@@ -49,15 +64,32 @@ class ItemRepositoryTest {
                 .owner(user)
                 .available(true)
                 .build());
-        List<Item> items = itemRepository.searchItems("desc", Pageable.ofSize(10));
+        List<ItemShortDto> items = itemRepository.searchItems("desc", Pageable.ofSize(10));
         assertThat(items.stream().count(), equalTo(1L));
     }
 
+    @Test
+    void searchShouldNotLoadEntitiesTest() {
+        User user = userRepository.save(User.builder().name("name").email("email@email.com").build());
+        ItemRequest itemRequest = itemRequestRepository.save(ItemRequest.builder().description("item request descr")
+                .requester(user).created(LocalDateTime.now()).build());
+        Item item = itemRepository.save(Item.builder().name("name").description("description")
+                .available(true).owner(user).request(itemRequest).build());
+        entityManager.flush();
+        entityManager.clear();
+
+        List<ItemShortDto> items = itemRepository.searchItems("desc", Pageable.ofSize(10));
+        assertThat(items.get(0), equalTo(new ItemShortDto(item.getId(), "name", "description", true,
+                itemRequest.getId())));
+        assertThat(entityManager.getEntityManager().unwrap(Session.class).getStatistics().getEntityCount(),
+                equalTo(0));
+    }
+
     @Test
     void findAllByOwnerIdTest() {
         User user = userRepository.save(User.builder().name("name").email("email@email.com").build());
         itemRepository.save(Item.builder().name("name").description("description").available(true).owner(user).build());
-        List<Item> items = itemRepository.findAllByOwnerId(user.getId(), Pageable.ofSize(10));
+        List<ItemDto> items = itemRepository.findAllByOwnerIdOrderById(user.getId(), Pageable.ofSize(10));
         assertThat(items.stream().count(), equalTo(1L));
     }
 
@@ -69,7 +101,9 @@ class ItemRepositoryTest {
                 .requester(user2).created(LocalDateTime.now()).build());
         itemRepository.save(Item.builder().name("name").description("description").available(true)
                 .owner(user).request(itemRequest).build());
-        assertThat(itemRepository.findAllByRequestId(itemRequest.getId()).size(), equalTo(1));
+        List<ItemDto> items = itemRepository.findAllByRequestIdIn(List.of(itemRequest.getId()));
+        assertThat(items.size(), equalTo(1));
+        assertThat(items.get(0).getRequestId(), equalTo(itemRequest.getId()));
     }
 
     @Test
@@ -82,4 +116,73 @@ class ItemRepositoryTest {
                 .created(LocalDateTime.now()).build());
         assertThat(commentRepository.findAllByItemId(item.getId()).size(), equalTo(1));
     }
+
+    @Test
+    void findLatestCommentsByItemIdInTest() {
+        User user = userRepository.save(User.builder().name("name").email("email@email.com").build());
+        User user2 = userRepository.save(User.builder().name("name2").email("email2@email.com").build());
+        Item item = itemRepository.save(Item.builder().name("name").description("description")
+                .available(true).owner(user).build());
+        Item item2 = itemRepository.save(Item.builder().name("name2").description("description2")
+                .available(true).owner(user).build());
+        LocalDateTime now = LocalDateTime.now();
+        commentRepository.save(Comment.builder().text("first").item(item).author(user2)
+                .created(now.minusHours(3)).build());
+        commentRepository.save(Comment.builder().text("second").item(item).author(user2)
+                .created(now.minusHours(2)).build());
+        commentRepository.save(Comment.builder().text("third").item(item).author(user2)
+                .created(now.minusHours(1)).build());
+        commentRepository.save(Comment.builder().text("text of comment2").item(item2).author(user2)
+                .created(now).build());
+
+        List<Comment> comments = commentRepository.findLatestByItemIdIn(Set.of(item.getId(), item2.getId()), 2);
+        assertThat(comments.size(), equalTo(3));
+        assertThat(comments.get(1).getText(), equalTo("third"));
+        assertThat(comments.get(2).getText(), equalTo("second"));
+    }
+
+    @Test
+    void findAllCommentByItemIdBeforeTest() {
+        User user = userRepository.save(User.builder().name("name").email("email@email.com").build());
+        User user2 = userRepository.save(User.builder().name("name2").email("email2@email.com").build());
+        Item item = itemRepository.save(Item.builder().name("name").description("description")
+                .available(true).owner(user).build());
+        LocalDateTime created = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        Comment first = commentRepository.save(Comment.builder().text("first").item(item).author(user2)
+                .created(created).build());
+        Comment second = commentRepository.save(Comment.builder().text("second").item(item).author(user2)
+                .created(created).build());
+
+        List<Comment> firstPage = commentRepository.findAllByItemIdOrderByCreatedDescIdDesc(item.getId(), Pageable.ofSize(1));
+        assertThat(firstPage.get(0).getId(), equalTo(second.getId()));
+
+        List<Comment> secondPage = commentRepository.findAllByItemIdBefore(item.getId(), created, second.getId(),
+                Pageable.ofSize(1));
+        assertThat(secondPage.size(), equalTo(1));
+        assertThat(secondPage.get(0).getId(), equalTo(first.getId()));
+    }
+
+    @Test
+    void searchAvailableItemsTest() {
+        User user = userRepository.save(User.builder().name("name").email("email@email.com").build());
+        User booker = userRepository.save(User.builder().name("booker").email("booker@email.com").build());
+        Item booked = itemRepository.save(Item.builder().name("drill").description("description")
+                .available(true).owner(user).build());
+        Item waiting = itemRepository.save(Item.builder().name("drill 2").description("description")
+                .available(true).owner(user).build());
+        Item free = itemRepository.save(Item.builder().name("drill 3").description("description")
+                .available(true).owner(user).build());
+        LocalDateTime start = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS).plusDays(10);
+        bookingRepository.save(Booking.builder().item(booked).booker(booker).status(Status.APPROVED)
+                .start(start.minusDays(1)).end(start.plusDays(1)).build());
+        bookingRepository.save(Booking.builder().item(waiting).booker(booker).status(Status.WAITING)
+                .start(start).end(start.plusDays(1)).build());
+        bookingRepository.save(Booking.builder().item(free).booker(booker).status(Status.APPROVED)
+                .start(start.plusDays(2)).end(start.plusDays(3)).build());
+
+        List<ItemShortDto> items = itemRepository.searchAvailableItems("drill", start, start.plusDays(2), Pageable.ofSize(10));
+        assertThat(items.size(), equalTo(2));
+        assertThat(items.get(0).getId(), equalTo(waiting.getId()));
+        assertThat(items.get(1).getId(), equalTo(free.getId()));
+    }
 }
@@ -0,0 +1,45 @@
+package ru.practicum.shareit.item.cache;
+
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.booking.dto.IntervalDto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class BookedIntervalsTest {
+    private static final LocalDateTime DAY = LocalDateTime.of(2030, 1, 1, 0, 0);
+
+    private final BookedIntervals bookedIntervals = BookedIntervals.of(List.of(
+            interval(1, 3),
+            interval(2, 4),
+            interval(4, 5),
+            interval(8, 9)));
+
+    @Test
+    void freeIntervals_shouldReturnGapsBetweenMergedBookings() {
+        assertEquals(List.of(interval(0, 1), interval(5, 8), interval(9, 10)),
+                bookedIntervals.freeIntervals(day(0), day(10)));
+    }
+
+    @Test
+    void freeIntervals_shouldClipToRequestedPeriod() {
+        assertEquals(List.of(interval(5, 6)), bookedIntervals.freeIntervals(day(3), day(6)));
+        assertEquals(List.of(), bookedIntervals.freeIntervals(day(2), day(3)));
+        assertEquals(List.of(interval(6, 7)), bookedIntervals.freeIntervals(day(6), day(7)));
+    }
+
+    @Test
+    void freeIntervals_shouldReturnWholePeriodWithoutBookings() {
+        assertEquals(List.of(interval(0, 1)), BookedIntervals.of(List.of()).freeIntervals(day(0), day(1)));
+    }
+
+    private static IntervalDto interval(int start, int end) {
+        return new IntervalDto(day(start), day(end));
+    }
+
+    private static LocalDateTime day(int day) {
+        return DAY.plusDays(day);
+    }
+}
@@ -0,0 +1,80 @@
+package ru.practicum.shareit.item.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.item.dto.ItemSuggestionDto;
+
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class PrefixTrieTest {
+    private PrefixTrie trie;
+
+    @BeforeEach
+    void init() {
+        trie = new PrefixTrie(2);
+        trie.put(1L, "Дрель ударная", 1);
+        trie.put(2L, "Дрель", 5);
+        trie.put(3L, "Отвертка", 0);
+        trie.put(4L, "Двуручная пила", 3);
+    }
+
+    @Test
+    void suggest_shouldReturnMostPopularByPrefix() {
+        assertEquals(List.of(2L, 4L), ids(trie.suggest("Д", 10)));
+        assertEquals(List.of(2L, 1L), ids(trie.suggest("дрЕ", 10)));
+        assertEquals(List.of(2L), ids(trie.suggest("д", 1)));
+        assertEquals(List.of(), ids(trie.suggest("пилы", 10)));
+    }
+
+    @Test
+    void suggest_shouldMatchWordStarts() {
+        assertEquals(List.of(1L), ids(trie.suggest("удар", 10)));
+        assertEquals(List.of(1L), ids(trie.suggest("дрель  уд", 10)));
+    }
+
+    @Test
+    void suggest_shouldFollowUpdates() {
+        trie.addPopularity(1L, 10);
+        assertEquals(List.of(1L, 2L), ids(trie.suggest("д", 10)));
+
+        trie.remove(2L);
+        assertEquals(List.of(1L, 4L), ids(trie.suggest("д", 10)));
+
+        trie.rename(3L, "Дрель аккумуляторная", 0);
+        assertEquals(List.of(1L, 3L), ids(trie.suggest("дрель", 10)));
+        assertEquals(List.of(), ids(trie.suggest("отв", 10)));
+        assertEquals(3, trie.size());
+    }
+
+    @Test
+    void rename_shouldRestorePopularityOfReturningItem() {
+        trie.remove(1L);
+        trie.rename(1L, "Дрель ударная", 10);
+        assertEquals(List.of(1L, 2L), ids(trie.suggest("д", 10)));
+
+        trie.rename(1L, "Дрель ударная новая", 0);
+        assertEquals(List.of(1L, 2L), ids(trie.suggest("д", 10)));
+    }
+
+    @Test
+    void keys_shouldStartAtEachWord() {
+        assertEquals(Set.of("дрель ударная", "ударная"), PrefixTrie.keys("Дрель, ударная!"));
+    }
+
+    @Test
+    void keys_shouldBeLimitedInNumberAndLength() {
+        Set<String> keys = PrefixTrie.keys("один два три четыре пять шесть семь восемь девять десять");
+        assertEquals(Set.of("один два три четыре пять шесть с", "два три четыре пять шесть с",
+                "три четыре пять шесть с", "четыре пять шесть с"), keys);
+    }
+
+    private List<Long> ids(List<ItemSuggestionDto> suggestions) {
+        return suggestions.stream()
+                .map(ItemSuggestionDto::getId)
+                .collect(Collectors.toList());
+    }
+}
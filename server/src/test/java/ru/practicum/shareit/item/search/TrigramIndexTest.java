@@ -0,0 +1,77 @@
+package ru.practicum.shareit.item.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.item.dto.ItemShortDto;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TrigramIndexTest {
+    private TrigramIndex index;
+
+    @BeforeEach
+    void init() {
+        index = new TrigramIndex();
+        index.putAll(List.of(
+                new ItemShortDto(1L, "Клей", "Тюбик суперклея для дрели", true, null),
+                new ItemShortDto(2L, "Отвертка", "Аккумуляторная отвертка", true, null),
+                new ItemShortDto(3L, "Дрель", "Простая дрель", true, null)));
+    }
+
+    @Test
+    void search_shouldReturnNameMatchesFirst() {
+        assertEquals(List.of(3L, 1L), ids(index.search("дРел", 0, 10)));
+        assertEquals(List.of(3L), ids(index.search("дРелЬ", 0, 10)));
+    }
+
+    @Test
+    void search_shouldApplyPagination() {
+        assertEquals(List.of(1L), ids(index.search("дрел", 1, 10)));
+        assertEquals(List.of(), ids(index.search("дрел", 5, 10)));
+    }
+
+    @Test
+    void search_shouldLeaveShortQueriesToDatabase() {
+        assertFalse(TrigramIndex.supports("от"));
+        assertTrue(TrigramIndex.supports("отв"));
+        assertEquals(List.of(), ids(index.search("от", 0, 10)));
+    }
+
+    @Test
+    void put_shouldReplaceOldTrigrams() {
+        index.put(new ItemShortDto(3L, "Молоток", "Тяжелый молоток", true, null));
+        assertEquals(List.of(1L), ids(index.search("дрел", 0, 10)));
+        assertEquals(List.of(3L), ids(index.search("молот", 0, 10)));
+    }
+
+    @Test
+    void remove_shouldExcludeItem() {
+        index.remove(2L);
+        assertEquals(List.of(), ids(index.search("аккумулятор", 0, 10)));
+        assertEquals(2, index.size());
+    }
+
+    @Test
+    void remove_shouldKeepOtherItemsAfterManyChanges() {
+        for (long id = 10; id < 1_000; id++) {
+            index.put(new ItemShortDto(id, "Пила " + id, "Ручная пила", true, null));
+        }
+        for (long id = 10; id < 1_000; id += 2) {
+            index.remove(id);
+        }
+
+        assertEquals(498, index.size());
+        assertEquals(List.of(11L, 13L), ids(index.searchAfter("пила", 0, 2)));
+        assertEquals(List.of(999L), ids(index.searchAfter("ПИЛА", 997, 10)));
+        assertEquals(List.of(3L, 1L), ids(index.search("дрел", 0, 10)));
+    }
+
+    private List<Long> ids(List<ItemShortDto> items) {
+        return items.stream().map(ItemShortDto::getId).collect(Collectors.toList());
+    }
+}
@@ -92,6 +92,7 @@ class ItemRequestControllerTest {
         UserDto owner = userController.create(tempUser);
         itemController.create(owner.getId(), itemShortDto);
 
-        assertEquals(1, itemRequestController.getAllRequests(owner.getId(), 1, 10).size());
+        assertEquals(1, itemRequestController.getAllRequests(owner.getId(), 0, 10).size());
+        assertEquals(0, itemRequestController.getAllRequests(owner.getId(), 1, 10).size());
     }
 }
\ No newline at end of file
@@ -5,6 +5,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.test.annotation.DirtiesContext;
+import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.user.UserRepository;
 import ru.practicum.shareit.user.model.User;
@@ -29,19 +30,19 @@ class ItemRequestRepositoryTest {
         User user = userRepository.save(User.builder().name("name").email("email@email.com").build());
         itemRequestRepository.save(ItemRequest.builder().description("description").requester(user)
                 .created(LocalDateTime.now()).build());
-        List<ItemRequest> items = itemRequestRepository.findAllByRequesterIdOrderByCreated(user.getId());
+        List<ItemRequestDto> items = itemRequestRepository.findAllByRequesterIdOrderByCreated(user.getId());
         assertThat(items.size(), equalTo(1));
     }
 
     @Test
-    void findAllByRequesterIsNot() {
+    void findAllByRequesterIdIsNot() {
         User user = userRepository.save(User.builder().name("name").email("email@email.com").build());
         itemRequestRepository.save(ItemRequest.builder().description("description").requester(user)
                 .created(LocalDateTime.now()).build());
-        assertThat(itemRequestRepository.findAllByRequesterIsNot(user, Pageable.ofSize(10))
+        assertThat(itemRequestRepository.findAllByRequesterIdIsNot(user.getId(), Pageable.ofSize(10))
                 .stream().count(), equalTo(0L));
         User user2 = userRepository.save(User.builder().name("name2").email("email2@email.com").build());
-        assertThat(itemRequestRepository.findAllByRequesterIsNot(user2, Pageable.ofSize(10))
+        assertThat(itemRequestRepository.findAllByRequesterIdIsNot(user2.getId(), Pageable.ofSize(10))
                 .stream().count(), equalTo(1L));
     }
 }